@@ -0,0 +1,98 @@
+package com.analyzer;
+
+import java.util.*;
+
+/**
+ * Everything the analyzer extracts from a single source file before any call is
+ * resolved against the project's packages. Extraction is a pure function of the file
+ * content, so facts can be produced in any order (or in another process) and applied
+ * to the graph later.
+ */
+public class FileFacts {
+    private final String packageName;
+    private final String className;
+    private final Set<String> imports;
+    private final Set<String> classAnnotations;
+    private final String superClass;
+    private final Set<String> interfaces;
+    private final List<MethodFacts> methods;
+
+    public FileFacts(String packageName, String className, Set<String> imports,
+                     Set<String> classAnnotations, String superClass, Set<String> interfaces,
+                     List<MethodFacts> methods) {
+        this.packageName = packageName;
+        this.className = className;
+        this.imports = imports;
+        this.classAnnotations = classAnnotations;
+        this.superClass = superClass;
+        this.interfaces = interfaces;
+        this.methods = methods;
+    }
+
+    public String getPackageName() {
+        return packageName;
+    }
+
+    /** Name of the Action class declared in the file, or null when the file declares none. */
+    public String getClassName() {
+        return className;
+    }
+
+    public Set<String> getImports() {
+        return imports;
+    }
+
+    public Set<String> getClassAnnotations() {
+        return classAnnotations;
+    }
+
+    public String getSuperClass() {
+        return superClass;
+    }
+
+    public Set<String> getInterfaces() {
+        return interfaces;
+    }
+
+    public List<MethodFacts> getMethods() {
+        return methods;
+    }
+
+    // A declared method together with the unresolved names it calls
+    public static class MethodFacts {
+        private final String name;
+        private final String accessLevel;
+        private final boolean isStatic;
+        private final Set<String> annotations;
+        private final List<String> calls;
+
+        public MethodFacts(String name, String accessLevel, boolean isStatic,
+                           Set<String> annotations, List<String> calls) {
+            this.name = name;
+            this.accessLevel = accessLevel;
+            this.isStatic = isStatic;
+            this.annotations = annotations;
+            this.calls = calls;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getAccessLevel() {
+            return accessLevel;
+        }
+
+        public boolean isStatic() {
+            return isStatic;
+        }
+
+        public Set<String> getAnnotations() {
+            return annotations;
+        }
+
+        public List<String> getCalls() {
+            return calls;
+        }
+    }
+}
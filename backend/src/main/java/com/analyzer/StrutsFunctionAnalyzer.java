@@ -2,14 +2,33 @@ package com.analyzer;
 
 import java.io.*;
 import java.util.*;
+import java.nio.charset.Charset;
 import java.nio.file.*;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.regex.*;
 import java.util.stream.Collectors;
-
+import java.util.stream.Stream;
+
+import com.analyzer.archive.SourceArchive;
+import com.analyzer.batch.BatchAnalysis;
+import com.analyzer.diff.GraphDiff;
+import com.analyzer.git.GitIncrementalAnalysis;
+import com.analyzer.graph.CallGraph;
+import com.analyzer.shard.ShardCoordinator;
+import com.analyzer.spill.ExternalSorter;
+import com.analyzer.spill.SpillStatistics;
+import com.analyzer.spill.SpillingGraph;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
 @Component
 public class StrutsFunctionAnalyzer {
+    private static final Logger log = LoggerFactory.getLogger(StrutsFunctionAnalyzer.class);
+    private static final int LINK_BATCH_SIZE = 500;
+    private static final long PROGRESS_INTERVAL_MS = 250;
+
     private final Map<String, Set<String>> functionCalls = new HashMap<>();
     private Set<String> projectPackages = new HashSet<>();
     private Set<String> blacklistedMethods = new HashSet<>();
@@ -24,6 +43,8 @@ public class StrutsFunctionAnalyzer {
     private final Pattern annotationPattern = Pattern.compile("@(\\w+)(?:\\([^)]*\\))?");
     private final Pattern classPattern = Pattern.compile("(?:public|protected|private)?\\s+(?:abstract\\s+)?class\\s+(\\w+)(?:\\s+extends\\s+(\\w+))?(?:\\s+implements\\s+([^{]+))?");
     private Map<String, NodeData> nodesMap = new HashMap<>();  // Store all method nodes
+    private SpillingGraph spillingGraph;  // Replaces functionCalls and nodesMap in low-memory mode
+    private int analyzedFiles = 0;
 
 
     public void loadBlacklist(String blacklistFile) throws IOException {
@@ -44,8 +65,216 @@ public class StrutsFunctionAnalyzer {
         return blacklistedMethods.contains(methodName);
     }
 
+    /**
+     * Switches to low-memory mode: method ids and call edges are no longer kept in memory
+     * but spilled to sorted run files once they exceed {@code heapBudget} bytes, and
+     * {@link #writeNetworkJson} merges the runs. Must be called before analysis starts.
+     * {@link #streamDirectory} always keeps its graph in memory.
+     *
+     * @param spillDirectory where run files go, or null for a temporary directory
+     */
+    public void setLowMemoryMode(long heapBudget, Path spillDirectory) throws IOException {
+        if (spillingGraph != null) {
+            spillingGraph.close();
+        }
+        spillingGraph = new SpillingGraph(spillDirectory, heapBudget);
+    }
+
+    /** Spill counters in low-memory mode, or null when the graph is kept in memory. */
+    public SpillStatistics getSpillStatistics() {
+        return spillingGraph != null ? spillingGraph.getStatistics() : null;
+    }
+
+    /** Number of source files parsed into this analyzer so far. */
+    public int getAnalyzedFileCount() {
+        return analyzedFiles;
+    }
+
+    /** Number of distinct call links in the graph. Not available in low-memory mode. */
+    public int getLinkCount() {
+        if (spillingGraph != null) {
+            throw new IllegalStateException("Link count is not available in low-memory mode");
+        }
+        int links = 0;
+        for (Set<String> targets : functionCalls.values()) {
+            links += targets.size();
+        }
+        return links;
+    }
+
+    /** Compact copy of the call graph for server-side queries. Not available in low-memory mode. */
+    public CallGraph toCallGraph() {
+        if (spillingGraph != null) {
+            throw new IllegalStateException("The call graph is not kept in memory in low-memory mode");
+        }
+        return CallGraph.build(functionCalls);
+    }
+
+    /** Deletes run files left by low-memory mode. */
+    public void close() throws IOException {
+        if (spillingGraph != null) {
+            spillingGraph.close();
+        }
+    }
+
+    /**
+     * Analyzes a directory, or a zip, jar or sources-jar archive including archives nested
+     * inside it.
+     */
     public void analyzeDirectory(String directoryPath) throws IOException {
+        if (SourceArchive.isArchive(Paths.get(directoryPath))) {
+            analyzeArchive(Paths.get(directoryPath));
+            return;
+        }
+        Path path = resolveDirectory(directoryPath);
+
+        try {
+            // First pass: collect all project packages
+            try (Stream<Path> walk = Files.walk(path)) {
+                walk.filter(Files::isRegularFile)
+                    .filter(p -> p.toString().endsWith(".java"))
+                    .forEach(this::collectPackage);
+            }
+
+            // Second pass: analyze function calls
+            try (Stream<Path> walk = Files.walk(path)) {
+                walk.filter(Files::isRegularFile)
+                    .filter(p -> p.toString().endsWith(".java"))
+                    .forEach(this::analyzeFile);
+            }
+        } catch (UncheckedIOException e) {
+            // An unreadable directory, or writing a spill run failed
+            throw e.getCause();
+        }
+    }
 
+    private void analyzeArchive(Path archive) throws IOException {
+        // Entries are parsed on pool threads, so they check the interrupt of the calling thread
+        Thread caller = Thread.currentThread();
+        List<FileFacts> files = SourceArchive.extractFacts(archive, content -> {
+            checkInterrupted(caller);
+            return extractFileFacts(content);
+        });
+
+        // Same two passes as for a directory, without reading any entry twice
+        for (FileFacts facts : files) {
+            if (facts.getPackageName() != null) {
+                projectPackages.add(facts.getPackageName());
+            }
+        }
+        try {
+            for (FileFacts facts : files) {
+                checkInterrupted();
+                applyFileFacts(facts);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Analyzes a directory of a git working tree incrementally against {@code baseRevision}.
+     * Only the source files that differ from the stored baseline of that revision are parsed.
+     */
+    public void analyzeDirectory(String directoryPath, String baseRevision) throws IOException {
+        Path path = resolveDirectory(directoryPath);
+        GitIncrementalAnalysis.Summary summary = new GitIncrementalAnalysis(path, this).analyze(baseRevision);
+        log.info("{}", summary);
+    }
+
+    /**
+     * Analyzes a directory in a single pass and writes the graph to {@code out} as NDJSON
+     * while files are being read. Package, class and node records are emitted as soon as
+     * they are discovered and links are flushed in batches. Calls from files whose package
+     * is unknown cannot be resolved until every package has been seen, so those links are
+     * sent after the last file, followed by nodes that are only ever called and a final
+     * statistics record. The resulting graph is the same as {@link #analyzeDirectory}.
+     */
+    public void streamDirectory(String directoryPath, Writer out) throws IOException {
+        if (spillingGraph != null) {
+            throw new IllegalStateException("Streaming is not supported in low-memory mode");
+        }
+        long startTime = System.currentTimeMillis();
+        List<Path> files = listSourceFiles(directoryPath);
+
+        NdjsonSink sink = new NdjsonSink(out);
+        try {
+            List<FileFacts> deferred = new ArrayList<>();
+            long lastProgress = 0;
+            for (int i = 0; i < files.size(); i++) {
+                FileFacts facts = readFileFacts(files.get(i));
+                if (facts != null) {
+                    String packageName = facts.getPackageName();
+                    if (packageName != null && projectPackages.add(packageName)) {
+                        sink.packageAdded(packageName);
+                    }
+                    // A file inside a project package always resolves to that package, so only
+                    // package-less files have to wait for the full package set
+                    boolean resolvable = isProjectPackage(packageName);
+                    applyFileFacts(facts, resolvable, sink);
+                    if (!resolvable && facts.getClassName() != null) {
+                        deferred.add(facts);
+                    }
+                }
+
+                long now = System.currentTimeMillis();
+                if (now - lastProgress >= PROGRESS_INTERVAL_MS || i == files.size() - 1) {
+                    sink.progress(i + 1, files.size());
+                    lastProgress = now;
+                }
+            }
+
+            // Trailing records: late-resolved links, call-only nodes and final statistics
+            int linksBeforeLate = sink.linkCount;
+            for (FileFacts facts : deferred) {
+                resolveFileCalls(facts, sink);
+            }
+            Set<String> calledOnly = new HashSet<>();
+            for (Set<String> targets : functionCalls.values()) {
+                for (String target : targets) {
+                    if (!nodesMap.containsKey(target) && calledOnly.add(target)) {
+                        sink.nodeAdded(new NodeData(target));
+                    }
+                }
+            }
+            sink.statistics(files.size(), sink.linkCount - linksBeforeLate, System.currentTimeMillis() - startTime);
+        } catch (UncheckedIOException e) {
+            // Client disconnected or the writer failed while records were being emitted
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Lists the {@code .java} files below a directory in the order {@link #analyzeDirectory}
+     * visits them.
+     */
+    public List<Path> listSourceFiles(String directoryPath) throws IOException {
+        Path path = resolveDirectory(directoryPath);
+        try (Stream<Path> walk = Files.walk(path)) {
+            return walk.filter(Files::isRegularFile)
+                    .filter(p -> p.toString().endsWith(".java"))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Registers packages found outside this analyzer, e.g. by shard workers. All packages
+     * must be added before facts are applied with {@link #applyFileFacts(FileFacts)}.
+     */
+    public void addProjectPackages(Collection<String> packages) {
+        projectPackages.addAll(packages);
+    }
+
+    /**
+     * Adds facts extracted elsewhere to the graph, resolving their calls against the
+     * project packages known so far. Applying files in the order {@link #listSourceFiles}
+     * returns them gives the same graph as {@link #analyzeDirectory}.
+     */
+    public void applyFileFacts(FileFacts facts) {
+        applyFileFacts(facts, true, GraphSink.NONE);
+    }
+
+    private Path resolveDirectory(String directoryPath) throws IOException {
         Path path = Paths.get(directoryPath);
 
         // Check if directory exists before trying to walk it
@@ -57,21 +286,11 @@ public class StrutsFunctionAnalyzer {
         if (!Files.isDirectory(path)) {
             throw new IOException("Path is not a directory: " + directoryPath);
         }
-
-        // First pass: collect all project packages
-        Files.walk(path)
-            .filter(Files::isRegularFile)
-            .filter(p -> p.toString().endsWith(".java"))
-            .forEach(this::collectPackage);
-
-        // Second pass: analyze function calls
-        Files.walk(path)
-            .filter(Files::isRegularFile)
-            .filter(p -> p.toString().endsWith(".java"))
-            .forEach(this::analyzeFile);
+        return path;
     }
 
     private void collectPackage(Path filePath) {
+        checkInterrupted();
         try {
             String content = new String(Files.readAllBytes(filePath));
             Matcher packageMatcher = packagePattern.matcher(content);
@@ -85,83 +304,196 @@ public class StrutsFunctionAnalyzer {
     }
 
     protected void analyzeFile(Path filePath) {
-        try {
-            String content = new String(Files.readAllBytes(filePath));
-            String currentPackage = extractPackage(content);
-            String currentClass = extractClassName(content);
+        checkInterrupted();
+        FileFacts facts = readFileFacts(filePath);
+        if (facts != null) {
+            applyFileFacts(facts, true, GraphSink.NONE);
+        }
+    }
 
-            Set<String> imports = extractImports(content);
+    // Lets a caller with a deadline stop a directory walk between two files
+    private static void checkInterrupted() {
+        checkInterrupted(Thread.currentThread());
+    }
 
-            if (currentClass != null) {
-                String fullClassName = currentPackage != null ? currentPackage + "." + currentClass : currentClass;
+    private static void checkInterrupted(Thread thread) {
+        if (thread.isInterrupted()) {
+            throw new UncheckedIOException(new InterruptedIOException("Analysis was interrupted"));
+        }
+    }
+
+    private FileFacts readFileFacts(Path filePath) {
+        try {
+            return extractFileFacts(new String(Files.readAllBytes(filePath)));
+        } catch (IOException e) {
+            System.err.println("Error analyzing file: " + filePath);
+            return null;
+        }
+    }
 
-                // Create or update package metadata
-                PackageMetadata pkg = null;
-                if (currentPackage != null) {
-                    packageMetadata.putIfAbsent(currentPackage, new PackageMetadata(currentPackage));
-                    pkg = packageMetadata.get(currentPackage);
-                    pkg.totalClasses++;
+    /**
+     * Extracts the package, Action class, imports and declared methods of a source file.
+     * Nothing is resolved or filtered against the blacklist here; that happens when the
+     * facts are applied.
+     */
+    public FileFacts extractFileFacts(String content) {
+        String currentPackage = extractPackage(content);
+        String currentClass = extractClassName(content);
+        Set<String> imports = extractImports(content);
+
+        Set<String> classAnnotations = new HashSet<>();
+        Set<String> interfaces = new HashSet<>();
+        String superClass = null;
+        List<FileFacts.MethodFacts> methods = new ArrayList<>();
+
+        if (currentClass != null) {
+            // Extract class annotations
+            Matcher annotationMatcher = annotationPattern.matcher(content);
+            while (annotationMatcher.find()) {
+                classAnnotations.add(annotationMatcher.group(1));
+            }
+
+            // Extract superclass and interfaces
+            Matcher classMatcher = classPattern.matcher(content);
+            if (classMatcher.find()) {
+                superClass = classMatcher.group(2);
+                if (classMatcher.group(3) != null) {
+                    Arrays.stream(classMatcher.group(3).split(","))
+                            .map(String::trim)
+                            .forEach(interfaces::add);
                 }
+            }
+
+            Matcher methodMatcher = methodPattern.matcher(content);
+            while (methodMatcher.find()) {
+                String methodBody = extractMethodBody(content, methodMatcher.start());
+                methods.add(new FileFacts.MethodFacts(
+                        methodMatcher.group(1),
+                        extractAccessLevel(methodMatcher.group()).name(),
+                        methodMatcher.group().contains("static"),
+                        extractMethodAnnotations(content, methodMatcher.start()),
+                        extractMethodCalls(methodBody)));
+            }
+        }
+
+        return new FileFacts(currentPackage, currentClass, imports, classAnnotations,
+                superClass, interfaces, methods);
+    }
+
+    /**
+     * Adds the class and methods described by {@code facts} to the graph. When
+     * {@code resolveCalls} is false only the declarations are added and
+     * {@link #resolveFileCalls} must be called once all project packages are known.
+     */
+    private void applyFileFacts(FileFacts facts, boolean resolveCalls, GraphSink sink) {
+        analyzedFiles++;
+        String currentPackage = facts.getPackageName();
+        String currentClass = facts.getClassName();
+        if (currentClass == null) {
+            return;
+        }
+
+        String fullClassName = currentPackage != null ? currentPackage + "." + currentClass : currentClass;
 
-                // Create or update class metadata
-                ClassMetadata classData = new ClassMetadata(currentClass, currentPackage != null ? currentPackage : "");
-                classData.isAction = currentClass.endsWith("Action");
-                extractClassMetadata(content, classData);
-                classMetadata.put(fullClassName, classData);
-
-                // Analyze methods
-                Matcher methodMatcher = methodPattern.matcher(content);
-                System.out.println(blacklistedMethods.toString());
-                while (methodMatcher.find()) {
-                    String methodName = methodMatcher.group(1);
-                    String fullMethodName = fullClassName + "." + methodName;
-
-                    if (!isBlacklisted(methodName)) {
-                        NodeData nodeData = new NodeData(fullMethodName);
-                        nodeData.isAction = classData.isAction;
-                        nodeData.accessLevel = extractAccessLevel(methodMatcher.group());
-                        nodeData.isStatic = methodMatcher.group().contains("static");
-                        nodeData.annotations = extractMethodAnnotations(content, methodMatcher.start());
-
-                        functionCalls.putIfAbsent(fullMethodName, new HashSet<>());
-                        nodesMap.putIfAbsent(fullMethodName, nodeData);
-
-                        // Only increment totalMethods if we have a valid package
-                        if (pkg != null) {
-                            pkg.totalMethods++;
-                        }
-
-                        String methodBody = extractMethodBody(content, methodMatcher.start());
-                        analyzeMethodCalls(fullMethodName, methodBody, imports, currentPackage);
+        // Create or update package metadata
+        PackageMetadata pkg = null;
+        if (currentPackage != null) {
+            packageMetadata.putIfAbsent(currentPackage, new PackageMetadata(currentPackage));
+            pkg = packageMetadata.get(currentPackage);
+            pkg.totalClasses++;
+        }
+
+        // Create or update class metadata
+        ClassMetadata classData = new ClassMetadata(currentClass, currentPackage != null ? currentPackage : "");
+        classData.isAction = currentClass.endsWith("Action");
+        classData.annotations.addAll(facts.getClassAnnotations());
+        classData.superClass = facts.getSuperClass();
+        classData.interfaces.addAll(facts.getInterfaces());
+        classMetadata.put(fullClassName, classData);
+        sink.classAdded(classData);
+
+        // Analyze methods
+        for (FileFacts.MethodFacts method : facts.getMethods()) {
+            String methodName = method.getName();
+            String fullMethodName = fullClassName + "." + methodName;
+
+            if (!isBlacklisted(methodName)) {
+                NodeData nodeData = new NodeData(fullMethodName);
+                nodeData.isAction = classData.isAction;
+                nodeData.accessLevel = AccessLevel.valueOf(method.getAccessLevel());
+                nodeData.isStatic = method.isStatic();
+                nodeData.annotations = new HashSet<>(method.getAnnotations());
+
+                if (spillingGraph != null) {
+                    spill(() -> spillingGraph.addNode(fullMethodName));
+                } else {
+                    functionCalls.putIfAbsent(fullMethodName, new HashSet<>());
+                    if (nodesMap.putIfAbsent(fullMethodName, nodeData) == null) {
+                        sink.nodeAdded(nodeData);
                     }
                 }
+
+                // Only increment totalMethods if we have a valid package
+                if (pkg != null) {
+                    pkg.totalMethods++;
+                }
+
+                if (resolveCalls) {
+                    resolveMethodCalls(fullMethodName, method.getCalls(), facts.getImports(), currentPackage, sink);
+                }
             }
-        } catch (IOException e) {
-            System.err.println("Error analyzing file: " + filePath);
         }
     }
 
-    private void extractClassMetadata(String content, ClassMetadata classData) {
-        // Extract class annotations
-        Matcher annotationMatcher = annotationPattern.matcher(content);
-        while (annotationMatcher.find()) {
-            classData.annotations.add(annotationMatcher.group(1));
+    /**
+     * Resolves the methods and calls of a single file against {@code packages} without
+     * adding anything to the graph, so a caller can maintain its own graph file by file.
+     */
+    public void resolveFileFacts(FileFacts facts, Set<String> packages,
+                                 Consumer<String> methods, BiConsumer<String, String> calls) {
+        if (facts.getClassName() == null) {
+            return;
         }
-
-        // Extract superclass and interfaces
-        Matcher classMatcher = classPattern.matcher(content);
-        if (classMatcher.find()) {
-            if (classMatcher.group(2) != null) {
-                classData.superClass = classMatcher.group(2);
+        String currentPackage = facts.getPackageName();
+        String fullClassName = currentPackage != null
+                ? currentPackage + "." + facts.getClassName() : facts.getClassName();
+        for (FileFacts.MethodFacts method : facts.getMethods()) {
+            if (isBlacklisted(method.getName())) {
+                continue;
             }
-            if (classMatcher.group(3) != null) {
-                Arrays.stream(classMatcher.group(3).split(","))
-                        .map(String::trim)
-                        .forEach(i -> classData.interfaces.add(i));
+            String fullMethodName = fullClassName + "." + method.getName();
+            methods.accept(fullMethodName);
+            for (String calledMethod : method.getCalls()) {
+                if (!isBlacklisted(calledMethod)) {
+                    String resolvedMethod = resolveMethodName(calledMethod, facts.getImports(), currentPackage, packages);
+                    if (resolvedMethod != null) {
+                        calls.accept(fullMethodName, resolvedMethod);
+                    }
+                }
             }
         }
     }
 
+    private void resolveFileCalls(FileFacts facts, GraphSink sink) {
+        String currentPackage = facts.getPackageName();
+        String fullClassName = currentPackage != null
+                ? currentPackage + "." + facts.getClassName() : facts.getClassName();
+        for (FileFacts.MethodFacts method : facts.getMethods()) {
+            if (!isBlacklisted(method.getName())) {
+                resolveMethodCalls(fullClassName + "." + method.getName(), method.getCalls(),
+                        facts.getImports(), currentPackage, sink);
+            }
+        }
+    }
+
+    private void spill(SpillAction action) {
+        try {
+            action.run();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     private Set<String> extractMethodAnnotations(String content, int methodStart) {
         Set<String> annotations = new HashSet<>();
         int searchStart = Math.max(0, methodStart - 200); // Look back up to 200 chars
@@ -181,23 +513,40 @@ public class StrutsFunctionAnalyzer {
         return AccessLevel.PACKAGE_PRIVATE;
     }
 
-    private void analyzeMethodCalls(String sourceMethod, String methodBody, Set<String> imports, String currentPackage) {
+    private List<String> extractMethodCalls(String methodBody) {
+        Set<String> calls = new LinkedHashSet<>();
         Matcher callMatcher = methodCallPattern.matcher(methodBody);
         while (callMatcher.find()) {
             String calledMethod = callMatcher.group(1);
-            if (!isJavaBuiltIn(calledMethod) && !isUtilityMethod(calledMethod) && !isBlacklisted(calledMethod)) {
-                String resolvedMethod = resolveMethodName(calledMethod, imports, currentPackage);
-                if (resolvedMethod != null) {
-                    functionCalls.get(sourceMethod).add(resolvedMethod);
+            if (!isJavaBuiltIn(calledMethod) && !isUtilityMethod(calledMethod)) {
+                calls.add(calledMethod);
+            }
+        }
+        return new ArrayList<>(calls);
+    }
+
+    private void resolveMethodCalls(String sourceMethod, List<String> calls, Set<String> imports,
+                                    String currentPackage, GraphSink sink) {
+        for (String calledMethod : calls) {
+            if (!isBlacklisted(calledMethod)) {
+                String resolvedMethod = resolveMethodName(calledMethod, imports, currentPackage, projectPackages);
+                if (resolvedMethod == null) {
+                    continue;
+                }
+                if (spillingGraph != null) {
+                    spill(() -> spillingGraph.addEdge(sourceMethod, resolvedMethod));
+                } else if (functionCalls.get(sourceMethod).add(resolvedMethod)) {
+                    sink.linkAdded(sourceMethod, resolvedMethod);
                 }
             }
         }
     }
 
-    private String resolveMethodName(String methodName, Set<String> imports, String currentPackage) {
+    private String resolveMethodName(String methodName, Set<String> imports, String currentPackage,
+                                     Set<String> packages) {
         // Check if the method belongs to the current package
         String fullName = currentPackage + "." + methodName;
-        if (isProjectPackage(currentPackage)) {
+        if (packages.contains(currentPackage)) {
             return fullName;
         }
 
@@ -205,10 +554,10 @@ public class StrutsFunctionAnalyzer {
         for (String importStatement : imports) {
             if (importStatement.endsWith(".*")) {
                 String packageName = importStatement.substring(0, importStatement.length() - 2);
-                if (isProjectPackage(packageName)) {
+                if (packages.contains(packageName)) {
                     return packageName + "." + methodName;
                 }
-            } else if (importStatement.endsWith("." + methodName) && isProjectPackage(getPackageName(importStatement))) {
+            } else if (importStatement.endsWith("." + methodName) && packages.contains(getPackageName(importStatement))) {
                 return importStatement;
             }
         }
@@ -287,8 +636,20 @@ public class StrutsFunctionAnalyzer {
     }
 
     public String generateNetworkJson() {
-        // Create data structures for JSON
-        Map<String, NodeData> nodesMap = new HashMap<>();
+        StringWriter out = new StringWriter();
+        try {
+            writeNetworkJson(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Writes the network JSON to {@code out} one record at a time. In low-memory mode nodes
+     * and links are produced by merging the sorted run files instead of the in-memory maps.
+     */
+    public void writeNetworkJson(Writer out) throws IOException {
         // Convert to JSON structure
         StringBuilder json = new StringBuilder();
         json.append("{\n");
@@ -305,6 +666,7 @@ public class StrutsFunctionAnalyzer {
             json.append("      \"dependencies\": ").append(generateJsonArray(pkg.dependencies)).append(",\n");
             json.append("      \"dependents\": ").append(generateJsonArray(pkg.dependents)).append("\n");
             json.append("    }").append(pkgIter.hasNext() ? "," : "").append("\n");
+            flushJson(json, out);
         }
         json.append("  ],\n");
 
@@ -322,82 +684,169 @@ public class StrutsFunctionAnalyzer {
             json.append("      \"interfaces\": ").append(generateJsonArray(cls.interfaces)).append(",\n");
             json.append("      \"annotations\": ").append(generateJsonArray(cls.annotations)).append("\n");
             json.append("    }").append(classIter.hasNext() ? "," : "").append("\n");
+            flushJson(json, out);
         }
         json.append("  ],\n");
 
-        // Add enhanced nodes
+        if (spillingGraph != null) {
+            writeSpilledNodesAndLinks(json, out);
+            json.append("}");
+            flushJson(json, out);
+            log.info("{}", spillingGraph.getStatistics());
+            return;
+        }
+
+        // Add enhanced nodes. Callers are counted per method rather than collected, so no
+        // reverse index of the links is held; call-only methods keep their smallest caller.
         json.append("  \"nodes\": [\n");
-        // First ensure all nodes from functionCalls are in nodesMap
+        Map<String, Integer> incoming = new HashMap<>();
+        Map<String, String> calledOnly = new HashMap<>();
         for (Map.Entry<String, Set<String>> entry : functionCalls.entrySet()) {
             String sourceMethod = entry.getKey();
-            Set<String> targetMethods = entry.getValue();
-
-            // Ensure source node exists
-            if (!nodesMap.containsKey(sourceMethod)) {
-                NodeData sourceNode = new NodeData(sourceMethod);
-                sourceNode.outgoingCalls = targetMethods.size();
-                nodesMap.put(sourceMethod, sourceNode);
-            }
-
-            // Ensure target nodes exist and update their stats
-            for (String targetMethod : targetMethods) {
+            for (String targetMethod : entry.getValue()) {
+                incoming.merge(targetMethod, 1, Integer::sum);
                 if (!nodesMap.containsKey(targetMethod)) {
-                    NodeData targetNode = new NodeData(targetMethod);
-                    targetNode.incomingCalls++;
-                    targetNode.calledBy.add(sourceMethod);
-                    nodesMap.put(targetMethod, targetNode);
+                    calledOnly.merge(targetMethod, sourceMethod, (a, b) -> a.compareTo(b) <= 0 ? a : b);
                 }
             }
         }
 
-        // Now output all nodes
-        Iterator<NodeData> nodeIter = nodesMap.values().iterator();
-        while (nodeIter.hasNext()) {
-            NodeData node = nodeIter.next();
-            json.append("    {\n");
-            json.append("      \"id\": \"").append(escapeJson(node.id)).append("\",\n");
-            json.append("      \"packageName\": \"").append(escapeJson(node.packageName)).append("\",\n");
-            json.append("      \"className\": \"").append(escapeJson(node.className)).append("\",\n");
-            json.append("      \"methodName\": \"").append(escapeJson(node.methodName)).append("\",\n");
-            json.append("      \"isAction\": ").append(node.isAction).append(",\n");
-            json.append("      \"accessLevel\": \"").append(node.accessLevel).append("\",\n");
-            json.append("      \"isStatic\": ").append(node.isStatic).append(",\n");
-            json.append("      \"statistics\": {\n");
-            json.append("        \"incomingCalls\": ").append(node.incomingCalls).append(",\n");
-            json.append("        \"outgoingCalls\": ").append(node.outgoingCalls).append(",\n");
-            json.append("        \"calledBy\": ").append(generateJsonArray(node.calledBy)).append(",\n");
-            json.append("        \"calls\": ").append(generateJsonArray(node.calls)).append("\n");
-            json.append("      },\n");
-            json.append("      \"annotations\": ").append(generateJsonArray(node.annotations)).append("\n");
-            json.append("    }").append(nodeIter.hasNext() ? "," : "").append("\n");
+        // Declared methods first, then methods that are only ever called
+        boolean first = true;
+        for (NodeData node : nodesMap.values()) {
+            node.incomingCalls = incoming.getOrDefault(node.id, 0);
+            Set<String> calls = functionCalls.get(node.id);
+            node.outgoingCalls = calls != null ? calls.size() : 0;
+            json.append(first ? "" : ",\n");
+            appendNodeJson(json, node);
+            flushJson(json, out);
+            first = false;
         }
-        json.append("  ],\n");
+        for (Map.Entry<String, String> entry : calledOnly.entrySet()) {
+            NodeData node = new NodeData(entry.getKey());
+            node.incomingCalls = incoming.get(entry.getKey());
+            node.calledBy.add(entry.getValue());
+            json.append(first ? "" : ",\n");
+            appendNodeJson(json, node);
+            flushJson(json, out);
+            first = false;
+        }
+        json.append(first ? "" : "\n").append("  ],\n");
 
-        // Generate links
+        // Links are written straight from the call map
         json.append("  \"links\": [\n");
-        List<Map<String, String>> links = new ArrayList<>();
+        first = true;
         for (Map.Entry<String, Set<String>> entry : functionCalls.entrySet()) {
-            String source = entry.getKey();
             for (String target : entry.getValue()) {
-                Map<String, String> link = new HashMap<>();
-                link.put("source", source);
-                link.put("target", target);
-                links.add(link);
+                json.append(first ? "" : ",\n");
+                appendLinkJson(json, entry.getKey(), target);
+                flushJson(json, out);
+                first = false;
             }
         }
+        json.append(first ? "" : "\n");
+        json.append("  ]\n}");
+        flushJson(json, out);
+    }
 
-        // Output links
-        for (int i = 0; i < links.size(); i++) {
-            Map<String, String> link = links.get(i);
-            json.append("    {\n");
-            json.append("      \"source\": \"").append(escapeJson(link.get("source"))).append("\",\n");
-            json.append("      \"target\": \"").append(escapeJson(link.get("target"))).append("\"\n");
-            json.append("    }").append(i < links.size() - 1 ? "," : "").append("\n");
+    /**
+     * Produces the nodes and links sections from the spilled runs. Declared methods, edges
+     * by source and edges by target are all sorted by method id, so one three-way merge
+     * yields every node with the call counts and callers the in-memory path computes. Only
+     * method ids are spilled, so the per-method metadata of declared methods is not.
+     */
+    private void writeSpilledNodesAndLinks(StringBuilder json, Writer out) throws IOException {
+        try {
+            mergeSpilledNodesAndLinks(json, out);
+        } catch (UncheckedIOException e) {
+            // Reading a spill run failed
+            throw e.getCause();
         }
-        json.append("  ]\n}");
+    }
 
-        return json.toString();
+    private void mergeSpilledNodesAndLinks(StringBuilder json, Writer out) throws IOException {
+        json.append("  \"nodes\": [\n");
+        try (ExternalSorter.CloseableIterator declared = spillingGraph.nodes();
+             SpillingGraph.EdgeIterator bySource = spillingGraph.edgesBySource();
+             SpillingGraph.EdgeIterator byTarget = spillingGraph.edgesByTarget()) {
+            String nextDeclared = declared.hasNext() ? declared.next() : null;
+            boolean first = true;
+            while (nextDeclared != null || byTarget.hasNext()) {
+                String targetId = byTarget.hasNext() ? byTarget.peek()[1] : null;
+                String id = nextDeclared == null ? targetId
+                        : targetId == null || nextDeclared.compareTo(targetId) <= 0 ? nextDeclared : targetId;
+
+                NodeData node = new NodeData(id);
+                if (id.equals(nextDeclared)) {
+                    while (bySource.hasNext() && bySource.peek()[0].compareTo(id) < 0) {
+                        bySource.next();
+                    }
+                    while (bySource.hasNext() && bySource.peek()[0].equals(id)) {
+                        bySource.next();
+                        node.outgoingCalls++;
+                    }
+                    nextDeclared = declared.hasNext() ? declared.next() : null;
+                } else {
+                    node.calledBy.add(byTarget.peek()[0]);
+                }
+                while (byTarget.hasNext() && byTarget.peek()[1].equals(id)) {
+                    byTarget.next();
+                    node.incomingCalls++;
+                }
+
+                json.append(first ? "" : ",\n");
+                appendNodeJson(json, node);
+                flushJson(json, out);
+                first = false;
+            }
+        }
+        json.append("\n  ],\n");
+
+        json.append("  \"links\": [\n");
+        try (SpillingGraph.EdgeIterator links = spillingGraph.edgesBySource()) {
+            boolean first = true;
+            while (links.hasNext()) {
+                String[] link = links.next();
+                json.append(first ? "" : ",\n");
+                appendLinkJson(json, link[0], link[1]);
+                flushJson(json, out);
+                first = false;
+            }
+        }
+        json.append("\n  ]\n");
     }
+
+    private void appendNodeJson(StringBuilder json, NodeData node) {
+        json.append("    {\n");
+        json.append("      \"id\": \"").append(escapeJson(node.id)).append("\",\n");
+        json.append("      \"packageName\": \"").append(escapeJson(node.packageName)).append("\",\n");
+        json.append("      \"className\": \"").append(escapeJson(node.className)).append("\",\n");
+        json.append("      \"methodName\": \"").append(escapeJson(node.methodName)).append("\",\n");
+        json.append("      \"isAction\": ").append(node.isAction).append(",\n");
+        json.append("      \"accessLevel\": \"").append(node.accessLevel).append("\",\n");
+        json.append("      \"isStatic\": ").append(node.isStatic).append(",\n");
+        json.append("      \"statistics\": {\n");
+        json.append("        \"incomingCalls\": ").append(node.incomingCalls).append(",\n");
+        json.append("        \"outgoingCalls\": ").append(node.outgoingCalls).append(",\n");
+        json.append("        \"calledBy\": ").append(generateJsonArray(node.calledBy)).append(",\n");
+        json.append("        \"calls\": ").append(generateJsonArray(node.calls)).append("\n");
+        json.append("      },\n");
+        json.append("      \"annotations\": ").append(generateJsonArray(node.annotations)).append("\n");
+        json.append("    }");
+    }
+
+    private void appendLinkJson(StringBuilder json, String source, String target) {
+        json.append("    {\n");
+        json.append("      \"source\": \"").append(escapeJson(source)).append("\",\n");
+        json.append("      \"target\": \"").append(escapeJson(target)).append("\"\n");
+        json.append("    }");
+    }
+
+    private void flushJson(StringBuilder json, Writer out) throws IOException {
+        out.write(json.toString());
+        json.setLength(0);
+    }
+
     private String generateJsonArray(Set<String> items) {
         if (items == null || items.isEmpty()) {
             return "[]";
@@ -408,7 +857,7 @@ public class StrutsFunctionAnalyzer {
     }
 
 
-    private String escapeJson(String text) {
+    public static String escapeJson(String text) {
         return text.replace("\\", "\\\\")
                   .replace("\"", "\\\"")
                   .replace("\n", "\\n")
@@ -449,6 +898,122 @@ public class StrutsFunctionAnalyzer {
         }
     }
 
+    private interface SpillAction {
+        void run() throws IOException;
+    }
+
+    // Receives graph elements as they are added during analysis
+    private interface GraphSink {
+        GraphSink NONE = new GraphSink() {};
+
+        default void classAdded(ClassMetadata cls) {}
+
+        default void nodeAdded(NodeData node) {}
+
+        default void linkAdded(String source, String target) {}
+    }
+
+    // Writes graph elements as newline-delimited JSON records
+    private class NdjsonSink implements GraphSink {
+        private final Writer out;
+        private int nodeCount = 0;
+        private int linkCount = 0;
+        private int pendingLinks = 0;
+
+        NdjsonSink(Writer out) {
+            this.out = out;
+        }
+
+        void packageAdded(String name) throws IOException {
+            out.write("{\"type\":\"package\",\"name\":\"" + escapeJson(name) + "\"}\n");
+        }
+
+        @Override
+        public void classAdded(ClassMetadata cls) {
+            write("{\"type\":\"class\"" +
+                    ",\"name\":\"" + escapeJson(cls.name) + "\"" +
+                    ",\"packageName\":\"" + escapeJson(cls.packageName) + "\"" +
+                    ",\"isAction\":" + cls.isAction +
+                    ",\"superClass\":" + (cls.superClass != null ? "\"" + escapeJson(cls.superClass) + "\"" : "null") +
+                    ",\"interfaces\":" + generateJsonArray(cls.interfaces) +
+                    ",\"annotations\":" + generateJsonArray(cls.annotations) + "}\n");
+        }
+
+        @Override
+        public void nodeAdded(NodeData node) {
+            nodeCount++;
+            write("{\"type\":\"node\"" +
+                    ",\"id\":\"" + escapeJson(node.id) + "\"" +
+                    ",\"packageName\":" + jsonString(node.packageName) +
+                    ",\"className\":" + jsonString(node.className) +
+                    ",\"methodName\":" + jsonString(node.methodName) +
+                    ",\"isAction\":" + node.isAction +
+                    ",\"accessLevel\":" + (node.accessLevel != null ? "\"" + node.accessLevel + "\"" : "null") +
+                    ",\"isStatic\":" + node.isStatic +
+                    ",\"annotations\":" + generateJsonArray(node.annotations) + "}\n");
+        }
+
+        @Override
+        public void linkAdded(String source, String target) {
+            linkCount++;
+            write("{\"type\":\"link\",\"source\":\"" + escapeJson(source) +
+                    "\",\"target\":\"" + escapeJson(target) + "\"}\n");
+            if (++pendingLinks >= LINK_BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        void progress(int filesAnalyzed, int totalFiles) throws IOException {
+            out.write("{\"type\":\"progress\",\"filesAnalyzed\":" + filesAnalyzed +
+                    ",\"totalFiles\":" + totalFiles +
+                    ",\"nodes\":" + nodeCount +
+                    ",\"links\":" + linkCount + "}\n");
+            flush();
+        }
+
+        void statistics(int totalFiles, int lateLinks, long elapsedMillis) throws IOException {
+            StringBuilder record = new StringBuilder("{\"type\":\"statistics\",\"packages\":[");
+            Iterator<PackageMetadata> pkgIter = packageMetadata.values().iterator();
+            while (pkgIter.hasNext()) {
+                PackageMetadata pkg = pkgIter.next();
+                record.append("{\"name\":\"").append(escapeJson(pkg.name)).append("\"")
+                        .append(",\"totalMethods\":").append(pkg.totalMethods)
+                        .append(",\"totalClasses\":").append(pkg.totalClasses).append("}")
+                        .append(pkgIter.hasNext() ? "," : "");
+            }
+            record.append("],\"totalFiles\":").append(totalFiles)
+                    .append(",\"totalPackages\":").append(projectPackages.size())
+                    .append(",\"totalClasses\":").append(classMetadata.size())
+                    .append(",\"totalNodes\":").append(nodeCount)
+                    .append(",\"totalLinks\":").append(linkCount)
+                    .append(",\"lateLinks\":").append(lateLinks)
+                    .append(",\"elapsedMillis\":").append(elapsedMillis).append("}\n");
+            out.write(record.toString());
+            flush();
+        }
+
+        private String jsonString(String value) {
+            return value != null ? "\"" + escapeJson(value) + "\"" : "null";
+        }
+
+        private void write(String record) {
+            try {
+                out.write(record);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void flush() {
+            try {
+                out.flush();
+                pendingLinks = 0;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
     // New class to track package-level metadata
     private static class PackageMetadata {
         String name;
@@ -479,31 +1044,138 @@ public class StrutsFunctionAnalyzer {
         }
     }
 
+    private static void printUsage() {
+        System.out.println("Usage: java StrutsFunctionAnalyzer [--shards=N [--worker-heap=SIZE] | --base=REVISION]");
+        System.out.println("                                 [--heap-budget=SIZE [--spill-dir=DIR]] <directory_or_archive> [blacklist_file]");
+        System.out.println("       (--shards and --base are exclusive; --heap-budget applies to the merged graph of either)");
+        System.out.println("       java StrutsFunctionAnalyzer --diff <before.json> <after.json> [output.ndjson]");
+        System.out.println("       java StrutsFunctionAnalyzer --batch [--jobs=N] [--timeout=SECONDS] <manifest>");
+    }
+
+    // Returns 0 for anything that is not a number, which callers reject like any other count below 1
+    private static int parseShardCount(String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
     public static void main(String[] args) {
-        if (args.length < 1) {
-            System.out.println("Usage: java StrutsFunctionAnalyzer <directory_path> [blacklist_file]");
+        if (args.length > 0 && args[0].equals("--diff")) {
+            GraphDiff.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--batch")) {
+            BatchAnalysis.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+
+        // Options come first, positional arguments follow
+        int shards = 0;
+        String workerHeap = null;
+        String baseRevision = null;
+        long heapBudget = 0;
+        Path spillDirectory = null;
+        List<String> positional = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--shards=")) {
+                shards = parseShardCount(arg.substring("--shards=".length()));
+                if (shards <= 0) {
+                    System.err.println("Invalid shard count: " + arg);
+                    printUsage();
+                    System.exit(2);
+                }
+            } else if (arg.startsWith("--worker-heap=")) {
+                workerHeap = arg.substring("--worker-heap=".length());
+            } else if (arg.startsWith("--base=")) {
+                baseRevision = arg.substring("--base=".length());
+            } else if (arg.startsWith("--heap-budget=")) {
+                heapBudget = parseSize(arg.substring("--heap-budget=".length()));
+                if (heapBudget <= 0) {
+                    System.err.println("Invalid heap budget: " + arg);
+                    printUsage();
+                    System.exit(2);
+                }
+            } else if (arg.startsWith("--spill-dir=")) {
+                spillDirectory = Paths.get(arg.substring("--spill-dir=".length()));
+            } else {
+                positional.add(arg);
+            }
+        }
+
+        if (positional.isEmpty()) {
+            printUsage();
             return;
         }
+        String conflict = shards > 0 && baseRevision != null ? "--shards cannot be combined with --base"
+                : workerHeap != null && shards == 0 ? "--worker-heap requires --shards"
+                : spillDirectory != null && heapBudget == 0 ? "--spill-dir requires --heap-budget"
+                : null;
+        if (conflict != null) {
+            System.err.println(conflict);
+            printUsage();
+            System.exit(2);
+        }
 
+        String directoryPath = positional.get(0);
         StrutsFunctionAnalyzer analyzer = new StrutsFunctionAnalyzer();
         try {
             // Load blacklist if provided
-            if (args.length > 1) {
-                analyzer.loadBlacklist(args[1]);
-                System.out.println("Loaded blacklist from: " + args[1]);
+            if (positional.size() > 1) {
+                analyzer.loadBlacklist(positional.get(1));
+                System.out.println("Loaded blacklist from: " + positional.get(1));
+            }
+
+            if (heapBudget > 0) {
+                analyzer.setLowMemoryMode(heapBudget, spillDirectory);
+            }
+
+            // Analyze the directory, in worker processes when sharding is requested
+            if (baseRevision != null) {
+                analyzer.analyzeDirectory(directoryPath, baseRevision);
+            } else if (shards > 0) {
+                new ShardCoordinator(shards, workerHeap).analyze(directoryPath, analyzer);
+            } else {
+                analyzer.analyzeDirectory(directoryPath);
             }
 
-            // Analyze the directory
-            analyzer.analyzeDirectory(args[0]);
-            
             // Generate and save network JSON
-            String networkJson = analyzer.generateNetworkJson();
             Path jsonOutputPath = Paths.get("../frontend/public/function_network.json");
-            Files.write(jsonOutputPath, networkJson.getBytes());
+            try (Writer out = Files.newBufferedWriter(jsonOutputPath, Charset.defaultCharset())) {
+                analyzer.writeNetworkJson(out);
+            }
             System.out.println("Network JSON has been written to: " + jsonOutputPath.toAbsolutePath());
-            
+
         } catch (IOException e) {
-            System.err.println("Error analyzing directory: " + args[0]);
+            System.err.println("Error analyzing directory: " + directoryPath + " (" + e.getMessage() + ")");
+        } finally {
+            try {
+                analyzer.close();
+            } catch (IOException e) {
+                System.err.println("Error removing spill files: " + e.getMessage());
+            }
+        }
+    }
+
+    // Parses sizes such as 512k, 256m or 2g; returns 0 for anything malformed, which callers reject
+    static long parseSize(String size) {
+        String value = size.trim().toLowerCase();
+        long unit = 1;
+        if (value.endsWith("k")) {
+            unit = 1024L;
+        } else if (value.endsWith("m")) {
+            unit = 1024L * 1024;
+        } else if (value.endsWith("g")) {
+            unit = 1024L * 1024 * 1024;
+        }
+        if (unit > 1) {
+            value = value.substring(0, value.length() - 1);
+        }
+        try {
+            return Math.multiplyExact(Long.parseLong(value), unit);
+        } catch (NumberFormatException | ArithmeticException e) {
+            return 0;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,96 @@
+package com.analyzer.archive;
+
+import com.analyzer.FileFacts;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Reads Java sources straight out of zip, jar and sources-jar archives without extracting
+ * them. Entries of the outer archive are read through {@link ZipFile}, which allows
+ * concurrent reads, so they are parsed in parallel. Archives nested inside it are
+ * streamed with {@link ZipInputStream}, since their entries can only be read in order.
+ */
+public class SourceArchive {
+    private static final int MAX_NESTING = 8;
+
+    public static boolean isArchive(Path path) {
+        return Files.isRegularFile(path) && isArchiveName(path.getFileName().toString());
+    }
+
+    /**
+     * Extracts the facts of every {@code .java} entry, including entries of nested archives,
+     * in the order the entries appear in the archive.
+     */
+    public static List<FileFacts> extractFacts(Path archive, Function<String, FileFacts> extractor) throws IOException {
+        try (ZipFile zip = new ZipFile(archive.toFile())) {
+            List<ZipEntry> entries = Collections.list(zip.entries()).stream()
+                    .filter(entry -> !entry.isDirectory())
+                    .filter(entry -> entry.getName().endsWith(".java") || isArchiveName(entry.getName()))
+                    .collect(Collectors.toList());
+
+            // Ordered collection keeps the entry order even though entries are parsed in parallel
+            return entries.parallelStream()
+                    .map(entry -> {
+                        try (InputStream in = zip.getInputStream(entry)) {
+                            if (entry.getName().endsWith(".java")) {
+                                return Collections.singletonList(extractor.apply(new String(in.readAllBytes())));
+                            }
+                            List<FileFacts> nested = new ArrayList<>();
+                            try (ZipInputStream nestedZip = new ZipInputStream(in)) {
+                                readNested(nestedZip, extractor, nested, 1);
+                            }
+                            return nested;
+                        } catch (IOException e) {
+                            throw new UncheckedIOException("Error reading " + entry.getName() + " from " + archive, e);
+                        }
+                    })
+                    .flatMap(List::stream)
+                    .collect(Collectors.toList());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void readNested(ZipInputStream zip, Function<String, FileFacts> extractor,
+                                   List<FileFacts> facts, int depth) throws IOException {
+        ZipEntry entry;
+        while ((entry = zip.getNextEntry()) != null) {
+            if (entry.isDirectory()) {
+                continue;
+            }
+            if (entry.getName().endsWith(".java")) {
+                facts.add(extractor.apply(new String(zip.readAllBytes())));
+            } else if (isArchiveName(entry.getName())) {
+                if (depth >= MAX_NESTING) {
+                    throw new IOException("Archives nested deeper than " + MAX_NESTING + " levels: " + entry.getName());
+                }
+                // Closing the inner stream releases its Inflater but must leave the outer one open
+                try (ZipInputStream nested = new ZipInputStream(new NonClosingInputStream(zip))) {
+                    readNested(nested, extractor, facts, depth + 1);
+                }
+            }
+        }
+    }
+
+    private static boolean isArchiveName(String name) {
+        String lower = name.toLowerCase(Locale.ROOT);
+        return lower.endsWith(".zip") || lower.endsWith(".jar") || lower.endsWith(".war");
+    }
+
+    private static class NonClosingInputStream extends FilterInputStream {
+        NonClosingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,324 @@
+package com.analyzer.batch;
+
+import com.analyzer.StrutsFunctionAnalyzer;
+
+import java.io.*;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.charset.Charset;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Analyzes many repositories in one JVM. Jobs share a fixed pool of worker threads, each
+ * with its own analyzer, so a nightly run over many repositories pays for JVM startup and
+ * class loading once instead of per repository. A job that runs longer than the timeout is
+ * interrupted between two files and reported as timed out; its output is not written.
+ */
+public class BatchAnalysis {
+    private final int workers;
+    private final long timeoutMillis;
+
+    /**
+     * @param workers       number of repositories analyzed at the same time
+     * @param timeoutMillis time limit per repository, or 0 for none
+     */
+    public BatchAnalysis(int workers, long timeoutMillis) {
+        this.workers = workers;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Reads a manifest with one job per line: the directory or archive to analyze, the JSON
+     * output path and optionally a blacklist file, separated by whitespace. Blank lines and
+     * lines starting with {@code #} are skipped. Relative paths are resolved against the
+     * directory of the manifest.
+     */
+    public static List<Job> readManifest(Path manifest) throws IOException {
+        Path base = manifest.toAbsolutePath().getParent();
+        List<Job> jobs = new ArrayList<>();
+        int lineNumber = 0;
+        for (String line : Files.readAllLines(manifest)) {
+            lineNumber++;
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+            String[] fields = trimmed.split("\\s+");
+            if (fields.length < 2 || fields.length > 3) {
+                throw new IOException("Invalid manifest line " + lineNumber + ": expected <source> <output> [blacklist]");
+            }
+            jobs.add(new Job(base.resolve(fields[0]), base.resolve(fields[1]),
+                    fields.length > 2 ? base.resolve(fields[2]) : null));
+        }
+        return jobs;
+    }
+
+    /** Runs all jobs and returns their outcomes in manifest order. */
+    public List<Outcome> run(List<Job> jobs) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(workers, r -> {
+            Thread thread = new Thread(r, "batch-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "batch-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<Outcome>> futures = new ArrayList<>();
+            for (Job job : jobs) {
+                futures.add(pool.submit(() -> runJob(job, watchdog)));
+            }
+            List<Outcome> outcomes = new ArrayList<>();
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    outcomes.add(futures.get(i).get());
+                } catch (ExecutionException e) {
+                    outcomes.add(new Outcome(jobs.get(i), Status.FAILED, 0, 0, 0, String.valueOf(e.getCause())));
+                }
+            }
+            return outcomes;
+        } finally {
+            pool.shutdownNow();
+            watchdog.shutdownNow();
+        }
+    }
+
+    private Outcome runJob(Job job, ScheduledExecutorService watchdog) {
+        long startTime = System.currentTimeMillis();
+        Deadline deadline = timeoutMillis > 0 ? new Deadline(Thread.currentThread(), watchdog, timeoutMillis) : null;
+
+        StrutsFunctionAnalyzer analyzer = new StrutsFunctionAnalyzer();
+        Status status = Status.OK;
+        String detail = "";
+        Path temporary = job.output.resolveSibling(job.output.getFileName() + ".tmp");
+        try {
+            if (job.blacklist != null) {
+                analyzer.loadBlacklist(job.blacklist.toString());
+            }
+            analyzer.analyzeDirectory(job.source.toString());
+            if (isExpired(startTime)) {
+                throw new InterruptedIOException("Analysis was interrupted");
+            }
+
+            // Write next to the target and move, so readers never see a partial file
+            if (job.output.getParent() != null) {
+                Files.createDirectories(job.output.getParent());
+            }
+            try (Writer out = Files.newBufferedWriter(temporary, Charset.defaultCharset())) {
+                analyzer.writeNetworkJson(out);
+            }
+            Files.move(temporary, job.output, StandardCopyOption.REPLACE_EXISTING);
+        } catch (InterruptedIOException | ClosedByInterruptException e) {
+            status = Status.TIMED_OUT;
+            detail = "exceeded " + timeoutMillis + " ms";
+        } catch (IOException | RuntimeException e) {
+            status = isExpired(startTime) ? Status.TIMED_OUT : Status.FAILED;
+            detail = status == Status.TIMED_OUT ? "exceeded " + timeoutMillis + " ms" : String.valueOf(e.getMessage());
+        } finally {
+            if (deadline != null) {
+                deadline.finish();
+            }
+            // Clear an interrupt that arrived after the work finished, before the thread is reused
+            Thread.interrupted();
+            try {
+                Files.deleteIfExists(temporary);
+                analyzer.close();
+            } catch (IOException e) {
+                System.err.println("Error cleaning up after " + job.source + ": " + e.getMessage());
+            }
+        }
+
+        long elapsed = System.currentTimeMillis() - startTime;
+        if (status != Status.OK) {
+            return new Outcome(job, status, analyzer.getAnalyzedFileCount(), 0, elapsed, detail);
+        }
+        return new Outcome(job, status, analyzer.getAnalyzedFileCount(), analyzer.getLinkCount(), elapsed, detail);
+    }
+
+    private boolean isExpired(long startTime) {
+        return timeoutMillis > 0 && System.currentTimeMillis() - startTime >= timeoutMillis;
+    }
+
+    /**
+     * Interrupts a job's worker thread once its timeout has passed. Cancelling the scheduled
+     * task does not wait for it, so the interrupt and {@link #finish()} share a lock: once
+     * a job has finished, its watchdog can no longer interrupt the next job on that thread.
+     */
+    private static class Deadline {
+        private final Thread worker;
+        private final ScheduledFuture<?> task;
+        private boolean finished;
+
+        Deadline(Thread worker, ScheduledExecutorService watchdog, long timeoutMillis) {
+            this.worker = worker;
+            this.task = watchdog.schedule(this::expire, timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+
+        private synchronized void expire() {
+            if (!finished) {
+                worker.interrupt();
+            }
+        }
+
+        synchronized void finish() {
+            finished = true;
+            task.cancel(false);
+        }
+    }
+
+    /** Prints one row per job followed by totals. */
+    public static void printSummary(List<Outcome> outcomes, long wallMillis, PrintStream out) {
+        int sourceWidth = "Repository".length();
+        for (Outcome outcome : outcomes) {
+            sourceWidth = Math.max(sourceWidth, outcome.job.source.toString().length());
+        }
+        String format = "%-" + sourceWidth + "s  %-9s  %8s  %8s  %10s  %s%n";
+        out.printf(format, "Repository", "Status", "Files", "Links", "Time (ms)", "Detail");
+
+        int failed = 0;
+        long totalFiles = 0;
+        long totalLinks = 0;
+        long totalMillis = 0;
+        for (Outcome outcome : outcomes) {
+            out.printf(format, outcome.job.source, outcome.status, outcome.files, outcome.links,
+                    outcome.elapsedMillis, outcome.detail);
+            if (outcome.status != Status.OK) {
+                failed++;
+            }
+            totalFiles += outcome.files;
+            totalLinks += outcome.links;
+            totalMillis += outcome.elapsedMillis;
+        }
+        out.printf(format, "Total", failed == 0 ? "OK" : failed + " failed", totalFiles, totalLinks, totalMillis,
+                "wall time " + wallMillis + " ms");
+    }
+
+    public enum Status {
+        OK, FAILED, TIMED_OUT
+    }
+
+    // One repository to analyze
+    public static class Job {
+        private final Path source;
+        private final Path output;
+        private final Path blacklist;
+
+        public Job(Path source, Path output, Path blacklist) {
+            this.source = source;
+            this.output = output;
+            this.blacklist = blacklist;
+        }
+
+        public Path getSource() {
+            return source;
+        }
+
+        public Path getOutput() {
+            return output;
+        }
+    }
+
+    // Result of one job, as shown in the summary table
+    public static class Outcome {
+        private final Job job;
+        private final Status status;
+        private final int files;
+        private final int links;
+        private final long elapsedMillis;
+        private final String detail;
+
+        Outcome(Job job, Status status, int files, int links, long elapsedMillis, String detail) {
+            this.job = job;
+            this.status = status;
+            this.files = files;
+            this.links = links;
+            this.elapsedMillis = elapsedMillis;
+            this.detail = detail;
+        }
+
+        public Job getJob() {
+            return job;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public int getFiles() {
+            return files;
+        }
+
+        public int getLinks() {
+            return links;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        public String getDetail() {
+            return detail;
+        }
+    }
+
+    private static void printUsage() {
+        System.out.println("Usage: java StrutsFunctionAnalyzer --batch [--jobs=N] [--timeout=SECONDS] <manifest>");
+    }
+
+    // Returns 0 for anything that is not a number or does not fit, which callers reject like any value below 1
+    private static long parsePositive(String value, long unit) {
+        try {
+            return Math.multiplyExact(Long.parseLong(value), unit);
+        } catch (NumberFormatException | ArithmeticException e) {
+            return 0;
+        }
+    }
+
+    public static void main(String[] args) {
+        int workers = Runtime.getRuntime().availableProcessors();
+        long timeoutMillis = 0;
+        String manifest = null;
+        for (String arg : args) {
+            if (arg.startsWith("--jobs=")) {
+                long jobs = parsePositive(arg.substring("--jobs=".length()), 1);
+                if (jobs < 1 || jobs > Integer.MAX_VALUE) {
+                    System.err.println("Invalid number of jobs: " + arg);
+                    printUsage();
+                    System.exit(2);
+                }
+                workers = (int) jobs;
+            } else if (arg.startsWith("--timeout=")) {
+                timeoutMillis = parsePositive(arg.substring("--timeout=".length()), 1000);
+                if (timeoutMillis < 1) {
+                    System.err.println("Invalid timeout: " + arg);
+                    printUsage();
+                    System.exit(2);
+                }
+            } else {
+                manifest = arg;
+            }
+        }
+        if (manifest == null) {
+            printUsage();
+            return;
+        }
+
+        try {
+            List<Job> jobs = readManifest(Paths.get(manifest));
+            long startTime = System.currentTimeMillis();
+            List<Outcome> outcomes = new BatchAnalysis(workers, timeoutMillis).run(jobs);
+            printSummary(outcomes, System.currentTimeMillis() - startTime, System.out);
+            if (outcomes.stream().anyMatch(outcome -> outcome.status != Status.OK)) {
+                System.exit(1);
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading manifest: " + e.getMessage());
+            System.exit(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -3,11 +3,17 @@ package com.analyzer.controller;
 import com.analyzer.service.AnalyzerService;
 import com.analyzer.service.BlacklistService;
 import com.analyzer.dto.BlacklistRequest;
+import com.analyzer.result.AnalysisResult;
+import org.springframework.http.HttpHeaders;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
 import java.util.Set;
 
 @RestController
@@ -32,6 +38,60 @@ public class AnalyzerController {
         }
     }
 
+    /**
+     * Serves the stored result of the last analysis of {@code path} for polling clients.
+     * The bytes are never rebuilt: a matching {@code If-None-Match} gets a 304, and clients
+     * that accept gzip get the copy compressed at analysis time. Analyzing stays behind
+     * POST; without a stored result this answers 404.
+     */
+    @GetMapping("/analyze")
+    public ResponseEntity<byte[]> getAnalysis(@RequestParam("path") String path,
+                                              @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                              @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        AnalysisResult result = analyzerService.findResult(path);
+        if (result == null) {
+            return ResponseEntity.status(404)
+                    .body(("Error: No analysis of " + path + " is stored").getBytes(StandardCharsets.UTF_8));
+        }
+
+        boolean gzip = AnalysisResult.acceptsGzip(acceptEncoding);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(gzip ? result.getGzipEtag() : result.getEtag());
+        headers.setVary(Collections.singletonList(HttpHeaders.ACCEPT_ENCODING));
+        headers.setCacheControl("no-cache");
+        if (result.matches(ifNoneMatch, gzip)) {
+            return ResponseEntity.status(304).headers(headers).build();
+        }
+        if (gzip) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        byte[] body = gzip ? result.getGzip() : result.getJson();
+        return ResponseEntity.ok()
+                .headers(headers)
+                .contentType(MediaType.APPLICATION_JSON)
+                .contentLength(body.length)
+                .body(body);
+    }
+
+    @PostMapping(value = "/analyze", params = "base")
+    public ResponseEntity<String> analyzeChanges(@RequestParam("path") String path,
+                                                 @RequestParam("base") String baseRevision) {
+        try {
+            String result = analyzerService.analyzeDirectory(path, baseRevision);
+            return ResponseEntity.ok(result);
+        } catch (IOException e) {
+            return ResponseEntity.status(500).body("Error: " + e.getMessage());
+        }
+    }
+
+    @PostMapping(value = "/analyze/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamAnalysis(@RequestParam("path") String path) {
+        StreamingResponseBody body = out -> analyzerService.streamDirectory(path, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
     @PostMapping("/blacklist")
     public ResponseEntity<Void> updateBlacklist(@RequestBody BlacklistRequest request) {
         blacklistService.updateBlacklist(request.getMethodNames());
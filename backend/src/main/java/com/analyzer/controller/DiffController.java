@@ -0,0 +1,39 @@
+package com.analyzer.controller;
+
+import com.analyzer.diff.GraphDiff;
+import com.analyzer.service.DiffService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+@RestController
+@RequestMapping("/api")
+public class DiffController {
+    private final DiffService diffService;
+
+    @Autowired
+    public DiffController(DiffService diffService) {
+        this.diffService = diffService;
+    }
+
+    @PostMapping("/diff")
+    public ResponseEntity<?> diff(@RequestParam("before") String before, @RequestParam("after") String after) {
+        GraphDiff diff;
+        try {
+            diff = diffService.diff(before, after);
+        } catch (IOException e) {
+            return ResponseEntity.status(500).body("Error: " + e.getMessage());
+        }
+
+        StreamingResponseBody body = out -> diff.write(
+                new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)));
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+}
@@ -0,0 +1,68 @@
+package com.analyzer.controller;
+
+import com.analyzer.graph.Hotspots;
+import com.analyzer.result.AnalysisResult;
+import com.analyzer.service.AnalyzerService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Top-K rankings over the stored result of the last analysis of {@code path}, for views
+ * that only show the busiest methods, classes or packages. Without a stored result the
+ * rankings answer 404; analyzing stays behind {@code POST /api/analyze}.
+ */
+@RestController
+@RequestMapping("/api/hotspots")
+public class HotspotController {
+    static final int MAX_K = 1000;
+
+    private final AnalyzerService analyzerService;
+
+    @Autowired
+    public HotspotController(AnalyzerService analyzerService) {
+        this.analyzerService = analyzerService;
+    }
+
+    @GetMapping("/methods")
+    public ResponseEntity<String> topMethods(@RequestParam("path") String path,
+                                             @RequestParam(value = "by", defaultValue = "fanIn") String metric,
+                                             @RequestParam(value = "k", defaultValue = "10") int k) {
+        return rank(path, hotspots -> hotspots.topMethods(metric, Math.min(k, MAX_K)));
+    }
+
+    @GetMapping("/classes")
+    public ResponseEntity<String> topClasses(@RequestParam("path") String path,
+                                             @RequestParam(value = "by", defaultValue = "methods") String metric,
+                                             @RequestParam(value = "k", defaultValue = "10") int k) {
+        return rank(path, hotspots -> hotspots.topClasses(metric, Math.min(k, MAX_K)));
+    }
+
+    @GetMapping("/packages")
+    public ResponseEntity<String> topPackages(@RequestParam("path") String path,
+                                              @RequestParam(value = "by", defaultValue = "methods") String metric,
+                                              @RequestParam(value = "k", defaultValue = "10") int k) {
+        return rank(path, hotspots -> hotspots.topPackages(metric, Math.min(k, MAX_K)));
+    }
+
+    private ResponseEntity<String> rank(String path, Function<Hotspots, List<Hotspots.Entry>> ranking) {
+        AnalysisResult result = analyzerService.findResult(path);
+        if (result == null) {
+            return ResponseEntity.status(404).body("Error: No analysis of " + path + " is stored");
+        }
+        try {
+            List<Hotspots.Entry> entries = ranking.apply(result.getHotspots());
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(Hotspots.toJson(entries));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(500).body("Error: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.analyzer.controller;
+
+import com.analyzer.result.AnalysisResult;
+import com.analyzer.service.AnalyzerService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api")
+public class LayoutController {
+    private final AnalyzerService analyzerService;
+
+    @Autowired
+    public LayoutController(AnalyzerService analyzerService) {
+        this.analyzerService = analyzerService;
+    }
+
+    /**
+     * Node positions for the stored result of the last analysis of {@code path}. The first
+     * request computes the layout; later ones are served from the result. Positions are
+     * served here rather than inside the node payload of {@code /api/analyze}, so that
+     * payload and its ETag do not depend on a layout, and clients that lay the graph out
+     * themselves never wait for one. Without a stored result this answers 404.
+     */
+    @GetMapping("/layout")
+    public ResponseEntity<String> getLayout(@RequestParam("path") String path) {
+        AnalysisResult result = analyzerService.findResult(path);
+        if (result == null) {
+            return ResponseEntity.status(404).body("Error: No analysis of " + path + " is stored");
+        }
+        try {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(result.getLayout().toJson());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(500).body("Error: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.analyzer.controller;
+
+import com.analyzer.graph.SearchIndex;
+import com.analyzer.result.AnalysisResult;
+import com.analyzer.service.AnalyzerService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Locale;
+
+@RestController
+@RequestMapping("/api")
+public class SearchController {
+    static final int MAX_PAGE_SIZE = 200;
+
+    private final AnalyzerService analyzerService;
+
+    @Autowired
+    public SearchController(AnalyzerService analyzerService) {
+        this.analyzerService = analyzerService;
+    }
+
+    /**
+     * Ranked, paged name search over the stored result of the last analysis of
+     * {@code path}. {@code kind} restricts results to methods, classes or packages.
+     * Without a stored result this answers 404.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<String> search(@RequestParam("path") String path,
+                                         @RequestParam("q") String query,
+                                         @RequestParam(value = "kind", required = false) String kind,
+                                         @RequestParam(value = "page", defaultValue = "0") int page,
+                                         @RequestParam(value = "size", defaultValue = "20") int size) {
+        if (page < 0 || size < 0) {
+            return ResponseEntity.badRequest().body("Error: page and size must not be negative");
+        }
+        SearchIndex.Kind kindFilter;
+        try {
+            kindFilter = kind == null ? null : SearchIndex.Kind.valueOf(kind.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error: Unknown kind: " + kind);
+        }
+
+        AnalysisResult result = analyzerService.findResult(path);
+        if (result == null) {
+            return ResponseEntity.status(404).body("Error: No analysis of " + path + " is stored");
+        }
+        try {
+            SearchIndex index = result.getSearchIndex();
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(index.search(query, kindFilter, page, Math.min(size, MAX_PAGE_SIZE)).toJson());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(500).body("Error: " + e.getMessage());
+        }
+    }
+}
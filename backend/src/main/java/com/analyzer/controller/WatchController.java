@@ -0,0 +1,45 @@
+package com.analyzer.controller;
+
+import com.analyzer.service.LiveAnalysisService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/api")
+public class WatchController {
+    private final LiveAnalysisService liveAnalysisService;
+
+    @Autowired
+    public WatchController(LiveAnalysisService liveAnalysisService) {
+        this.liveAnalysisService = liveAnalysisService;
+    }
+
+    @PostMapping("/watch")
+    public ResponseEntity<String> startWatching(@RequestParam("path") String path) {
+        try {
+            return ResponseEntity.ok(liveAnalysisService.start(path).toJson());
+        } catch (IOException e) {
+            return ResponseEntity.status(500).body("Error: " + e.getMessage());
+        }
+    }
+
+    @DeleteMapping("/watch")
+    public ResponseEntity<String> stopWatching() {
+        try {
+            liveAnalysisService.stop();
+            return ResponseEntity.ok("Watch stopped");
+        } catch (IOException e) {
+            return ResponseEntity.status(500).body("Error: " + e.getMessage());
+        }
+    }
+
+    @GetMapping(value = "/watch/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events() {
+        return liveAnalysisService.subscribe();
+    }
+}
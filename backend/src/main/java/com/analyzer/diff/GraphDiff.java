@@ -0,0 +1,206 @@
+package com.analyzer.diff;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+
+import static com.analyzer.StrutsFunctionAnalyzer.escapeJson;
+
+/**
+ * Compares two analysis snapshots and writes the differences as NDJSON records. Nodes,
+ * edges and package dependencies of both snapshots are already sorted by name, so every
+ * section is a single linear merge and records can be written as they are found.
+ */
+public class GraphDiff {
+    private final GraphSnapshot before;
+    private final GraphSnapshot after;
+    private final Summary summary = new Summary();
+
+    public GraphDiff(GraphSnapshot before, GraphSnapshot after) {
+        this.before = before;
+        this.after = after;
+    }
+
+    public Summary write(Writer out) throws IOException {
+        diffNodes(out);
+        diffEdges(out);
+        diffPackageDependencies(out);
+        out.write("{\"type\":\"summary\"" +
+                ",\"addedNodes\":" + summary.addedNodes +
+                ",\"removedNodes\":" + summary.removedNodes +
+                ",\"addedLinks\":" + summary.addedLinks +
+                ",\"removedLinks\":" + summary.removedLinks +
+                ",\"addedPackageDependencies\":" + summary.addedPackageDependencies +
+                ",\"removedPackageDependencies\":" + summary.removedPackageDependencies +
+                ",\"degreeChanges\":" + summary.degreeChanges + "}\n");
+        out.flush();
+        return summary;
+    }
+
+    // Added and removed nodes, plus fan-in/fan-out changes of nodes present in both
+    private void diffNodes(Writer out) throws IOException {
+        int i = 0;
+        int j = 0;
+        while (i < before.nodeCount() || j < after.nodeCount()) {
+            int cmp = i == before.nodeCount() ? 1
+                    : j == after.nodeCount() ? -1
+                    : before.id(i).compareTo(after.id(j));
+            if (cmp < 0) {
+                out.write("{\"type\":\"node\",\"change\":\"removed\",\"id\":\"" + escapeJson(before.id(i)) + "\"}\n");
+                summary.removedNodes++;
+                i++;
+            } else if (cmp > 0) {
+                out.write("{\"type\":\"node\",\"change\":\"added\",\"id\":\"" + escapeJson(after.id(j)) + "\"}\n");
+                summary.addedNodes++;
+                j++;
+            } else {
+                if (before.fanIn(i) != after.fanIn(j) || before.fanOut(i) != after.fanOut(j)) {
+                    out.write("{\"type\":\"degree\",\"id\":\"" + escapeJson(after.id(j)) + "\"" +
+                            ",\"fanInBefore\":" + before.fanIn(i) +
+                            ",\"fanInAfter\":" + after.fanIn(j) +
+                            ",\"fanOutBefore\":" + before.fanOut(i) +
+                            ",\"fanOutAfter\":" + after.fanOut(j) + "}\n");
+                    summary.degreeChanges++;
+                }
+                i++;
+                j++;
+            }
+        }
+    }
+
+    private void diffEdges(Writer out) throws IOException {
+        int i = 0;
+        int j = 0;
+        while (i < before.edgeCount() || j < after.edgeCount()) {
+            int cmp = i == before.edgeCount() ? 1
+                    : j == after.edgeCount() ? -1
+                    : compareEdges(before.edge(i), after.edge(j));
+            if (cmp < 0) {
+                writeLink(out, "removed", before, before.edge(i++));
+                summary.removedLinks++;
+            } else if (cmp > 0) {
+                writeLink(out, "added", after, after.edge(j++));
+                summary.addedLinks++;
+            } else {
+                i++;
+                j++;
+            }
+        }
+    }
+
+    private void diffPackageDependencies(Writer out) throws IOException {
+        int i = 0;
+        int j = 0;
+        while (i < before.packageDependencyCount() || j < after.packageDependencyCount()) {
+            int cmp = i == before.packageDependencyCount() ? 1
+                    : j == after.packageDependencyCount() ? -1
+                    : GraphSnapshot.comparePairs(before.packageDependency(i), after.packageDependency(j));
+            if (cmp < 0) {
+                writePackageDependency(out, "removed", before.packageDependency(i++));
+                summary.removedPackageDependencies++;
+            } else if (cmp > 0) {
+                writePackageDependency(out, "added", after.packageDependency(j++));
+                summary.addedPackageDependencies++;
+            } else {
+                i++;
+                j++;
+            }
+        }
+    }
+
+    private int compareEdges(long a, long b) {
+        int cmp = before.id(GraphSnapshot.source(a)).compareTo(after.id(GraphSnapshot.source(b)));
+        return cmp != 0 ? cmp : before.id(GraphSnapshot.target(a)).compareTo(after.id(GraphSnapshot.target(b)));
+    }
+
+    private void writeLink(Writer out, String change, GraphSnapshot snapshot, long edge) throws IOException {
+        out.write("{\"type\":\"link\",\"change\":\"" + change + "\"" +
+                ",\"source\":\"" + escapeJson(snapshot.id(GraphSnapshot.source(edge))) + "\"" +
+                ",\"target\":\"" + escapeJson(snapshot.id(GraphSnapshot.target(edge))) + "\"}\n");
+    }
+
+    private void writePackageDependency(Writer out, String change, String[] dependency) throws IOException {
+        out.write("{\"type\":\"packageDependency\",\"change\":\"" + change + "\"" +
+                ",\"source\":\"" + escapeJson(dependency[0]) + "\"" +
+                ",\"target\":\"" + escapeJson(dependency[1]) + "\"}\n");
+    }
+
+    // Counts of each kind of difference
+    public static class Summary {
+        private int addedNodes;
+        private int removedNodes;
+        private int addedLinks;
+        private int removedLinks;
+        private int addedPackageDependencies;
+        private int removedPackageDependencies;
+        private int degreeChanges;
+
+        public int getAddedNodes() {
+            return addedNodes;
+        }
+
+        public int getRemovedNodes() {
+            return removedNodes;
+        }
+
+        public int getAddedLinks() {
+            return addedLinks;
+        }
+
+        public int getRemovedLinks() {
+            return removedLinks;
+        }
+
+        public int getAddedPackageDependencies() {
+            return addedPackageDependencies;
+        }
+
+        public int getRemovedPackageDependencies() {
+            return removedPackageDependencies;
+        }
+
+        public int getDegreeChanges() {
+            return degreeChanges;
+        }
+    }
+
+    // Standard output is flushed rather than closed so later messages still reach it
+    private static OutputStream openOutput(String[] args) throws IOException {
+        if (args.length > 2) {
+            return Files.newOutputStream(Paths.get(args[2]));
+        }
+        return new FilterOutputStream(System.out) {
+            @Override
+            public void write(byte[] b, int off, int len) {
+                System.out.write(b, off, len);
+            }
+
+            @Override
+            public void close() {
+                System.out.flush();
+            }
+        };
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.out.println("Usage: java GraphDiff <before.json> <after.json> [output.ndjson]");
+            return;
+        }
+
+        try {
+            GraphSnapshot before = GraphSnapshot.read(Paths.get(args[0]));
+            GraphSnapshot after = GraphSnapshot.read(Paths.get(args[1]));
+            Summary summary;
+            try (Writer out = new BufferedWriter(new OutputStreamWriter(openOutput(args), StandardCharsets.UTF_8))) {
+                summary = new GraphDiff(before, after).write(out);
+            }
+            if (args.length > 2) {
+                System.out.println("Diff has been written to: " + Paths.get(args[2]).toAbsolutePath()
+                        + " (" + summary.getAddedLinks() + " links added, " + summary.getRemovedLinks() + " removed)");
+            }
+        } catch (IOException e) {
+            System.err.println("Error comparing snapshots: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.analyzer.diff;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Compact, sorted view of an analysis result as written by
+ * {@link com.analyzer.StrutsFunctionAnalyzer#generateNetworkJson()}. Every method id is
+ * interned to its rank in sorted order, so edges sorted by (source rank, target rank) are
+ * also sorted by name and two snapshots can be compared with a single merge pass.
+ */
+public class GraphSnapshot {
+    private final String[] ids;
+    private final String[] packages;
+    private final long[] edges;
+    private final int[] fanIn;
+    private final int[] fanOut;
+    private final String[][] packageDependencies;
+
+    private GraphSnapshot(String[] ids, String[] packages, long[] edges) {
+        this.ids = ids;
+        this.packages = packages;
+        this.edges = edges;
+        this.fanIn = new int[ids.length];
+        this.fanOut = new int[ids.length];
+
+        Set<List<String>> dependencies = new HashSet<>();
+        for (long edge : edges) {
+            int source = source(edge);
+            int target = target(edge);
+            fanOut[source]++;
+            fanIn[target]++;
+            String sourcePackage = packages[source];
+            String targetPackage = packages[target];
+            if (!sourcePackage.equals(targetPackage)) {
+                dependencies.add(Arrays.asList(sourcePackage, targetPackage));
+            }
+        }
+        this.packageDependencies = dependencies.stream()
+                .map(pair -> pair.toArray(new String[0]))
+                .sorted(GraphSnapshot::comparePairs)
+                .toArray(String[][]::new);
+    }
+
+    public static GraphSnapshot read(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return read(in);
+        }
+    }
+
+    /** Reads the {@code nodes} and {@code links} sections, skipping everything else. */
+    public static GraphSnapshot read(InputStream in) throws IOException {
+        Map<String, Integer> interned = new HashMap<>();
+        List<String> names = new ArrayList<>();
+        Map<Integer, String> declaredPackages = new HashMap<>();
+        long[] rawEdges = new long[1024];
+        int edgeCount = 0;
+
+        try (JsonParser parser = new JsonFactory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Analysis result must be a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String section = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if (value != JsonToken.START_ARRAY || !(section.equals("nodes") || section.equals("links"))) {
+                    parser.skipChildren();
+                    continue;
+                }
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    Map<String, String> record = readStringFields(parser);
+                    if (section.equals("nodes")) {
+                        if (record.containsKey("id")) {
+                            int id = intern(record.get("id"), interned, names);
+                            if (record.get("packageName") != null) {
+                                declaredPackages.put(id, record.get("packageName"));
+                            }
+                        }
+                    } else if (record.containsKey("source") && record.containsKey("target")) {
+                        if (edgeCount == rawEdges.length) {
+                            rawEdges = Arrays.copyOf(rawEdges, edgeCount * 2);
+                        }
+                        rawEdges[edgeCount++] = pack(intern(record.get("source"), interned, names),
+                                intern(record.get("target"), interned, names));
+                    }
+                }
+            }
+        }
+
+        // Replace first-seen ids with ranks in sorted order
+        String[] ids = names.toArray(new String[0]);
+        Arrays.sort(ids);
+        int[] rank = new int[ids.length];
+        for (int i = 0; i < names.size(); i++) {
+            rank[i] = Arrays.binarySearch(ids, names.get(i));
+        }
+
+        String[] packages = new String[ids.length];
+        for (int i = 0; i < names.size(); i++) {
+            String declared = declaredPackages.get(i);
+            packages[rank[i]] = declared != null ? declared : packageOf(names.get(i));
+        }
+
+        long[] edges = new long[edgeCount];
+        for (int i = 0; i < edgeCount; i++) {
+            edges[i] = pack(rank[source(rawEdges[i])], rank[target(rawEdges[i])]);
+        }
+        Arrays.sort(edges);
+        int unique = 0;
+        for (int i = 0; i < edges.length; i++) {
+            if (i == 0 || edges[i] != edges[i - 1]) {
+                edges[unique++] = edges[i];
+            }
+        }
+        return new GraphSnapshot(ids, packages, Arrays.copyOf(edges, unique));
+    }
+
+    public int nodeCount() {
+        return ids.length;
+    }
+
+    public int edgeCount() {
+        return edges.length;
+    }
+
+    String id(int rank) {
+        return ids[rank];
+    }
+
+    long edge(int index) {
+        return edges[index];
+    }
+
+    int fanIn(int rank) {
+        return fanIn[rank];
+    }
+
+    int fanOut(int rank) {
+        return fanOut[rank];
+    }
+
+    int packageDependencyCount() {
+        return packageDependencies.length;
+    }
+
+    String[] packageDependency(int index) {
+        return packageDependencies[index];
+    }
+
+    static int source(long edge) {
+        return (int) (edge >>> 32);
+    }
+
+    static int target(long edge) {
+        return (int) edge;
+    }
+
+    static int comparePairs(String[] a, String[] b) {
+        int result = a[0].compareTo(b[0]);
+        return result != 0 ? result : a[1].compareTo(b[1]);
+    }
+
+    private static long pack(int source, int target) {
+        return ((long) source << 32) | (target & 0xFFFFFFFFL);
+    }
+
+    private static int intern(String name, Map<String, Integer> interned, List<String> names) {
+        Integer id = interned.get(name);
+        if (id == null) {
+            id = names.size();
+            interned.put(name, id);
+            names.add(name);
+        }
+        return id;
+    }
+
+    // Same split the analyzer uses: the last two segments are class and method
+    private static String packageOf(String id) {
+        String[] parts = id.split("\\.");
+        return parts.length >= 2 ? String.join(".", Arrays.copyOfRange(parts, 0, parts.length - 2)) : "";
+    }
+
+    private static Map<String, String> readStringFields(JsonParser parser) throws IOException {
+        Map<String, String> fields = new HashMap<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if (value == JsonToken.VALUE_STRING) {
+                fields.put(name, parser.getText());
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return fields;
+    }
+}
@@ -0,0 +1,197 @@
+package com.analyzer.git;
+
+import com.analyzer.FileFacts;
+import com.analyzer.StrutsFunctionAnalyzer;
+import com.analyzer.shard.PartialGraphReader;
+import com.analyzer.shard.PartialGraphWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Analyzes a git working tree relative to a base revision. The facts of every source file
+ * at the base revision are read straight from the object database once and stored as a
+ * baseline inside the repository's git directory. Later runs only parse the files that
+ * were added or modified since the base revision, drop deleted ones, and rebuild the graph
+ * from the patched baseline without touching unchanged files.
+ */
+public class GitIncrementalAnalysis {
+    private static final Logger log = LoggerFactory.getLogger(GitIncrementalAnalysis.class);
+    private static final String CACHE_DIRECTORY = "struts-analyzer";
+
+    private final GitRepository git;
+    private final StrutsFunctionAnalyzer analyzer;
+
+    public GitIncrementalAnalysis(Path directory, StrutsFunctionAnalyzer analyzer) {
+        this.git = new GitRepository(directory);
+        this.analyzer = analyzer;
+    }
+
+    public Summary analyze(String baseRevision) throws IOException {
+        String commit;
+        try {
+            commit = git.resolveCommit(baseRevision);
+        } catch (IOException e) {
+            throw new IOException("Unknown base revision: " + baseRevision, e);
+        }
+
+        Path baselineFile = baselineFile(commit);
+        Map<String, FileFacts> files = null;
+        if (Files.exists(baselineFile)) {
+            try {
+                files = readBaseline(baselineFile);
+            } catch (IOException e) {
+                // Written by an older format or damaged: rebuild it
+                log.warn("Rebuilding unreadable baseline {}: {}", baselineFile, e.getMessage());
+            }
+        }
+        boolean cached = files != null;
+        if (!cached) {
+            files = buildBaseline(commit, baselineFile);
+        }
+
+        // Apply working tree deltas on top of the baseline
+        Path topLevel = git.topLevel();
+        Summary summary = new Summary(commit, cached);
+        for (GitRepository.Change change : git.changedJavaFiles(commit)) {
+            if (change.getType() == GitRepository.ChangeType.DELETED) {
+                files.remove(change.getPath());
+                summary.deleted++;
+                continue;
+            }
+            try {
+                String content = new String(Files.readAllBytes(topLevel.resolve(change.getPath())));
+                files.put(change.getPath(), analyzer.extractFileFacts(content));
+                if (change.getType() == GitRepository.ChangeType.ADDED) {
+                    summary.added++;
+                } else {
+                    summary.modified++;
+                }
+            } catch (IOException e) {
+                System.err.println("Error analyzing file: " + change.getPath());
+            }
+        }
+
+        Set<String> packages = new HashSet<>();
+        for (FileFacts facts : files.values()) {
+            if (facts.getPackageName() != null) {
+                packages.add(facts.getPackageName());
+            }
+        }
+        analyzer.addProjectPackages(packages);
+        for (FileFacts facts : files.values()) {
+            analyzer.applyFileFacts(facts);
+        }
+        summary.totalFiles = files.size();
+        return summary;
+    }
+
+    // Baselines are per commit and per analyzed subdirectory of the working tree
+    private Path baselineFile(String commit) throws IOException {
+        String prefix = git.prefix();
+        String name = prefix.isEmpty() ? commit : commit + "-" + digest(prefix);
+        return git.gitDir().resolve(CACHE_DIRECTORY).resolve(name + ".graph");
+    }
+
+    private static String digest(String prefix) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(prefix.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder();
+            for (byte b : hash) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private Map<String, FileFacts> buildBaseline(String commit, Path baselineFile) throws IOException {
+        Map<String, String> blobs = git.listJavaBlobs(commit);
+        Map<String, List<String>> pathsByBlob = new LinkedHashMap<>();
+        blobs.forEach((path, blob) -> pathsByBlob.computeIfAbsent(blob, k -> new ArrayList<>()).add(path));
+
+        Map<String, FileFacts> files = new TreeMap<>();
+        git.readBlobs(pathsByBlob.keySet(), (blob, content) -> {
+            FileFacts facts = analyzer.extractFileFacts(new String(content));
+            for (String path : pathsByBlob.get(blob)) {
+                files.put(path, facts);
+            }
+        });
+
+        // Written to a temporary file first so a crash never leaves a truncated baseline
+        Files.createDirectories(baselineFile.getParent());
+        Path tempFile = Files.createTempFile(baselineFile.getParent(), "baseline", ".tmp");
+        try (PartialGraphWriter writer = new PartialGraphWriter(Files.newOutputStream(tempFile))) {
+            for (Map.Entry<String, FileFacts> entry : files.entrySet()) {
+                writer.writeFile(entry.getKey(), entry.getValue());
+            }
+        }
+        Files.move(tempFile, baselineFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return files;
+    }
+
+    private Map<String, FileFacts> readBaseline(Path baselineFile) throws IOException {
+        Map<String, FileFacts> files = new TreeMap<>();
+        try (PartialGraphReader reader = new PartialGraphReader(Files.newInputStream(baselineFile))) {
+            FileFacts facts;
+            while ((facts = reader.readFile()) != null) {
+                files.put(reader.getSourcePath(), facts);
+            }
+        }
+        return files;
+    }
+
+    // What an incremental run did, for logging
+    public static class Summary {
+        private final String baseCommit;
+        private final boolean baselineCached;
+        private int added;
+        private int modified;
+        private int deleted;
+        private int totalFiles;
+
+        Summary(String baseCommit, boolean baselineCached) {
+            this.baseCommit = baseCommit;
+            this.baselineCached = baselineCached;
+        }
+
+        public String getBaseCommit() {
+            return baseCommit;
+        }
+
+        public boolean isBaselineCached() {
+            return baselineCached;
+        }
+
+        public int getAdded() {
+            return added;
+        }
+
+        public int getModified() {
+            return modified;
+        }
+
+        public int getDeleted() {
+            return deleted;
+        }
+
+        public int getTotalFiles() {
+            return totalFiles;
+        }
+
+        @Override
+        public String toString() {
+            return "Incremental analysis against " + baseCommit
+                    + (baselineCached ? " (cached baseline)" : " (new baseline)")
+                    + ": " + added + " added, " + modified + " modified, " + deleted + " deleted, "
+                    + totalFiles + " files in graph";
+        }
+    }
+}
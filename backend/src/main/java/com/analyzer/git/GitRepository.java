@@ -0,0 +1,220 @@
+package com.analyzer.git;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Thin wrapper around the local {@code git} command line. All paths exchanged with this
+ * class are relative to the top level of the working tree, and every command is limited
+ * to the directory the repository was opened on.
+ */
+public class GitRepository {
+    private final Path directory;
+
+    public GitRepository(Path directory) {
+        this.directory = directory;
+    }
+
+    /** Returns the top-level directory of the working tree that contains the directory. */
+    public Path topLevel() throws IOException {
+        return Paths.get(runForLine("rev-parse", "--show-toplevel"));
+    }
+
+    public Path gitDir() throws IOException {
+        return Paths.get(runForLine("rev-parse", "--absolute-git-dir"));
+    }
+
+    /** Path of the directory relative to the top level, empty or ending with '/'. */
+    public String prefix() throws IOException {
+        return runForLine("rev-parse", "--show-prefix");
+    }
+
+    public String resolveCommit(String revision) throws IOException {
+        return runForLine("rev-parse", "--verify", "--quiet", revision + "^{commit}");
+    }
+
+    /** Maps each {@code .java} file in the commit to the id of its blob. */
+    public Map<String, String> listJavaBlobs(String commit) throws IOException {
+        Map<String, String> blobs = new TreeMap<>();
+        for (String entry : split(run("ls-tree", "-r", "-z", "--full-name", commit, "--", "."))) {
+            // <mode> SP <type> SP <object> TAB <file>
+            int tab = entry.indexOf('\t');
+            String[] meta = entry.substring(0, tab).split(" ");
+            String file = entry.substring(tab + 1);
+            if (meta[1].equals("blob") && file.endsWith(".java")) {
+                blobs.put(file, meta[2]);
+            }
+        }
+        return blobs;
+    }
+
+    /**
+     * Streams the content of the given blobs from the object database through a single
+     * {@code git cat-file --batch} process.
+     */
+    public void readBlobs(Collection<String> blobIds, BlobConsumer consumer) throws IOException {
+        Process process = start("cat-file", "--batch");
+        ExecutorService feeder = Executors.newSingleThreadExecutor();
+        try {
+            // Requests are written from another thread so a full stdout pipe cannot block them
+            Future<?> requests = feeder.submit(() -> {
+                try (Writer stdin = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8))) {
+                    for (String id : blobIds) {
+                        stdin.write(id);
+                        stdin.write('\n');
+                    }
+                }
+                return null;
+            });
+
+            DataInputStream stdout = new DataInputStream(new BufferedInputStream(process.getInputStream()));
+            for (String id : blobIds) {
+                String header = readLine(stdout);
+                String[] parts = header.split(" ");
+                if (parts.length < 3 || !parts[1].equals("blob")) {
+                    throw new IOException("Unexpected object for " + id + ": " + header);
+                }
+                byte[] content = new byte[Integer.parseInt(parts[2])];
+                stdout.readFully(content);
+                stdout.readByte(); // newline after the content
+                consumer.accept(id, content);
+            }
+            requests.get();
+            waitFor(process, "cat-file");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while reading blobs");
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to request blobs from git", e.getCause());
+        } finally {
+            feeder.shutdownNow();
+            process.destroy();
+        }
+    }
+
+    /**
+     * Lists the {@code .java} files whose working tree content differs from the commit,
+     * including staged changes and untracked files that are not ignored.
+     */
+    public List<Change> changedJavaFiles(String commit) throws IOException {
+        List<Change> changes = new ArrayList<>();
+        List<String> diff = split(run("diff", "--no-renames", "--name-status", "-z", commit, "--", "."));
+        for (int i = 0; i + 1 < diff.size(); i += 2) {
+            String file = diff.get(i + 1);
+            if (file.endsWith(".java")) {
+                changes.add(new Change(diff.get(i).charAt(0) == 'D' ? ChangeType.DELETED
+                        : diff.get(i).charAt(0) == 'A' ? ChangeType.ADDED : ChangeType.MODIFIED, file));
+            }
+        }
+        for (String file : split(run("ls-files", "--others", "--exclude-standard", "--full-name", "-z", "--", "."))) {
+            if (file.endsWith(".java")) {
+                changes.add(new Change(ChangeType.ADDED, file));
+            }
+        }
+        return changes;
+    }
+
+    private String runForLine(String... args) throws IOException {
+        return new String(run(args), StandardCharsets.UTF_8).trim();
+    }
+
+    private byte[] run(String... args) throws IOException {
+        Process process = start(args);
+        try {
+            // stderr is drained on the side so a chatty command cannot fill its pipe
+            CompletableFuture<byte[]> stderr = CompletableFuture.supplyAsync(() -> readAll(process.getErrorStream()));
+            process.getOutputStream().close();
+            byte[] output = readAll(process.getInputStream());
+            int exitCode = process.waitFor();
+            if (exitCode != 0) {
+                throw new IOException("git " + args[0] + " failed with exit code " + exitCode + ": "
+                        + new String(stderr.join(), StandardCharsets.UTF_8).trim());
+            }
+            return output;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while running git " + args[0]);
+        } finally {
+            process.destroy();
+        }
+    }
+
+    private Process start(String... args) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add("git");
+        command.add("-C");
+        command.add(directory.toString());
+        command.addAll(Arrays.asList(args));
+        ProcessBuilder builder = new ProcessBuilder(command);
+        if (args[0].equals("cat-file")) {
+            builder.redirectError(ProcessBuilder.Redirect.DISCARD);
+        }
+        return builder.start();
+    }
+
+    private void waitFor(Process process, String command) throws IOException, InterruptedException {
+        int exitCode = process.waitFor();
+        if (exitCode != 0) {
+            throw new IOException("git " + command + " failed with exit code " + exitCode);
+        }
+    }
+
+    private static byte[] readAll(InputStream in) {
+        try {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String readLine(DataInputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != '\n') {
+            if (b == -1) {
+                throw new EOFException("Unexpected end of git output");
+            }
+            line.write(b);
+        }
+        return new String(line.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static List<String> split(byte[] nulSeparated) {
+        List<String> parts = new ArrayList<>();
+        for (String part : new String(nulSeparated, StandardCharsets.UTF_8).split("\0")) {
+            if (!part.isEmpty()) {
+                parts.add(part);
+            }
+        }
+        return parts;
+    }
+
+    public interface BlobConsumer {
+        void accept(String blobId, byte[] content) throws IOException;
+    }
+
+    public enum ChangeType {
+        ADDED, MODIFIED, DELETED
+    }
+
+    public static class Change {
+        private final ChangeType type;
+        private final String path;
+
+        public Change(ChangeType type, String path) {
+            this.type = type;
+            this.path = path;
+        }
+
+        public ChangeType getType() {
+            return type;
+        }
+
+        public String getPath() {
+            return path;
+        }
+    }
+}
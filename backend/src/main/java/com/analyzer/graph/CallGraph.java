@@ -0,0 +1,195 @@
+package com.analyzer.graph;
+
+import java.util.*;
+
+/**
+ * Immutable, int-indexed copy of an analyzed call graph for server-side queries. Method ids
+ * are sorted and replaced by their rank, and calls are kept in compressed sparse rows in
+ * both directions, so a graph with millions of edges costs a few flat arrays instead of a
+ * map of sets per method. Package and class of each method follow the same split the
+ * analyzer uses for its JSON nodes: the last two segments of an id are class and method.
+ */
+public class CallGraph {
+    private final String[] ids;
+    private final boolean[] declared;
+    private final int[] classOf;
+    private final String[] classes;
+    private final int[] packageOfClass;
+    private final String[] packages;
+    private final int[] outOffsets;
+    private final int[] outTargets;
+    private final int[] inOffsets;
+    private final int[] inSources;
+
+    private CallGraph(String[] ids, boolean[] declared, int[] classOf, String[] classes, int[] packageOfClass,
+                      String[] packages, int[] outOffsets, int[] outTargets) {
+        this.ids = ids;
+        this.declared = declared;
+        this.classOf = classOf;
+        this.classes = classes;
+        this.packageOfClass = packageOfClass;
+        this.packages = packages;
+        this.outOffsets = outOffsets;
+        this.outTargets = outTargets;
+
+        // Reverse rows by counting sort on the target
+        int n = ids.length;
+        inOffsets = new int[n + 1];
+        for (int target : outTargets) {
+            inOffsets[target + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            inOffsets[i + 1] += inOffsets[i];
+        }
+        inSources = new int[outTargets.length];
+        int[] next = Arrays.copyOf(inOffsets, n);
+        for (int source = 0; source < n; source++) {
+            for (int e = outOffsets[source]; e < outOffsets[source + 1]; e++) {
+                inSources[next[outTargets[e]]++] = source;
+            }
+        }
+    }
+
+    /**
+     * Builds a graph from the analyzer's adjacency map. Keys are declared methods; targets
+     * that are not keys become nodes too, exactly as in the analyzer's JSON output.
+     */
+    public static CallGraph build(Map<String, ? extends Collection<String>> calls) {
+        Set<String> names = new HashSet<>(calls.keySet());
+        for (Collection<String> targets : calls.values()) {
+            names.addAll(targets);
+        }
+        String[] ids = names.toArray(new String[0]);
+        Arrays.sort(ids);
+        int n = ids.length;
+
+        Map<String, Integer> classIndex = new HashMap<>();
+        Map<String, Integer> packageIndex = new HashMap<>();
+        List<String> classes = new ArrayList<>();
+        List<String> packages = new ArrayList<>();
+        List<Integer> packageOfClass = new ArrayList<>();
+        int[] classOf = new int[n];
+        boolean[] declared = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            String[] split = split(ids[i]);
+            String className = split[0].isEmpty() ? split[1] : split[0] + "." + split[1];
+            Integer cls = classIndex.get(className);
+            if (cls == null) {
+                Integer pkg = packageIndex.get(split[0]);
+                if (pkg == null) {
+                    pkg = packages.size();
+                    packageIndex.put(split[0], pkg);
+                    packages.add(split[0]);
+                }
+                cls = classes.size();
+                classIndex.put(className, cls);
+                classes.add(className);
+                packageOfClass.add(pkg);
+            }
+            classOf[i] = cls;
+            declared[i] = calls.containsKey(ids[i]);
+        }
+
+        int edgeCount = 0;
+        for (Collection<String> targets : calls.values()) {
+            edgeCount += targets.size();
+        }
+        int[] outOffsets = new int[n + 1];
+        int[] outTargets = new int[edgeCount];
+        int e = 0;
+        for (int i = 0; i < n; i++) {
+            Collection<String> targets = calls.get(ids[i]);
+            int start = e;
+            if (targets != null) {
+                for (String target : targets) {
+                    outTargets[e++] = Arrays.binarySearch(ids, target);
+                }
+                Arrays.sort(outTargets, start, e);
+            }
+            outOffsets[i + 1] = e;
+        }
+
+        return new CallGraph(ids, declared, classOf, classes.toArray(new String[0]),
+                packageOfClass.stream().mapToInt(Integer::intValue).toArray(),
+                packages.toArray(new String[0]), outOffsets, outTargets);
+    }
+
+    public int nodeCount() {
+        return ids.length;
+    }
+
+    public int edgeCount() {
+        return outTargets.length;
+    }
+
+    public String id(int node) {
+        return ids[node];
+    }
+
+    /** Rank of {@code id}, or a negative number when it is not a node. */
+    public int indexOf(String id) {
+        return Arrays.binarySearch(ids, id);
+    }
+
+    /** Whether the method is declared in an analyzed file rather than only called. */
+    public boolean isDeclared(int node) {
+        return declared[node];
+    }
+
+    public int fanOut(int node) {
+        return outOffsets[node + 1] - outOffsets[node];
+    }
+
+    public int fanIn(int node) {
+        return inOffsets[node + 1] - inOffsets[node];
+    }
+
+    public int target(int node, int i) {
+        return outTargets[outOffsets[node] + i];
+    }
+
+    public int source(int node, int i) {
+        return inSources[inOffsets[node] + i];
+    }
+
+    public int classOf(int node) {
+        return classOf[node];
+    }
+
+    public int classCount() {
+        return classes.length;
+    }
+
+    /** Fully qualified class name. */
+    public String className(int cls) {
+        return classes[cls];
+    }
+
+    public int packageOfClass(int cls) {
+        return packageOfClass[cls];
+    }
+
+    public int packageOf(int node) {
+        return packageOfClass[classOf[node]];
+    }
+
+    public int packageCount() {
+        return packages.length;
+    }
+
+    public String packageName(int pkg) {
+        return packages[pkg];
+    }
+
+    // Package and class part of a method id, the class without its package
+    private static String[] split(String id) {
+        int methodDot = id.lastIndexOf('.');
+        if (methodDot < 0) {
+            return new String[]{"", ""};
+        }
+        int classDot = id.lastIndexOf('.', methodDot - 1);
+        return classDot < 0
+                ? new String[]{"", id.substring(0, methodDot)}
+                : new String[]{id.substring(0, classDot), id.substring(classDot + 1, methodDot)};
+    }
+}
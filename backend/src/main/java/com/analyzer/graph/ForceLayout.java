@@ -0,0 +1,377 @@
+package com.analyzer.graph;
+
+import java.util.*;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+import static com.analyzer.StrutsFunctionAnalyzer.escapeJson;
+
+/**
+ * Force-directed layout of a {@link CallGraph} computed on the server. Repulsion between
+ * all pairs is approximated with a Barnes-Hut quadtree rebuilt every iteration, so one
+ * iteration costs O(n log n) instead of O(n^2), and the per-node force computation runs on
+ * all cores. Calls pull their two methods together and a weak gravity keeps disconnected
+ * components in view. The iteration budget is fixed; the step size cools linearly to zero.
+ *
+ * <p>A layout can be seeded from an earlier layout of a similar graph. Methods that were
+ * already placed keep their position, new methods start next to their placed neighbours,
+ * and when few methods are new only a short, cool refinement is run so the picture does
+ * not jump.
+ */
+public class ForceLayout {
+    static final int ITERATIONS = 300;
+    static final int SEEDED_ITERATIONS = 60;
+    /** Largest share of new methods for which a seeded layout is only refined. */
+    static final double SMALL_CHANGE = 0.2;
+
+    private static final double THETA = 0.8;
+    private static final double IDEAL_LENGTH = 30;
+    private static final double GRAVITY = 0.02;
+    private static final int MAX_DEPTH = 40;
+    private static final int LEAF_SIZE = 8;
+
+    private final CallGraph graph;
+    private final double[] x;
+    private final double[] y;
+    private final int iterations;
+    private final double initialTemperature;
+    private final boolean seeded;
+
+    private ForceLayout(CallGraph graph, Layout seed) {
+        this.graph = graph;
+        int n = graph.nodeCount();
+        this.x = new double[n];
+        this.y = new double[n];
+        Random random = new Random(n);
+        double radius = IDEAL_LENGTH * Math.sqrt(Math.max(1, n));
+
+        int placed = 0;
+        boolean[] known = new boolean[n];
+        if (seed != null) {
+            for (int node = 0; node < n; node++) {
+                int previous = seed.indexOf(graph.id(node));
+                if (previous >= 0) {
+                    x[node] = seed.getX(previous);
+                    y[node] = seed.getY(previous);
+                    known[node] = true;
+                    placed++;
+                }
+            }
+        }
+        for (int node = 0; node < n; node++) {
+            if (known[node]) {
+                continue;
+            }
+            double[] anchor = placedNeighbourCentre(node, known);
+            if (anchor != null) {
+                x[node] = anchor[0] + (random.nextDouble() - 0.5) * IDEAL_LENGTH;
+                y[node] = anchor[1] + (random.nextDouble() - 0.5) * IDEAL_LENGTH;
+            } else {
+                x[node] = (random.nextDouble() - 0.5) * 2 * radius;
+                y[node] = (random.nextDouble() - 0.5) * 2 * radius;
+            }
+        }
+
+        this.seeded = n > 0 && placed > 0 && (n - placed) <= SMALL_CHANGE * n;
+        this.iterations = seeded ? SEEDED_ITERATIONS : ITERATIONS;
+        this.initialTemperature = seeded ? IDEAL_LENGTH : radius / 4;
+    }
+
+    /** Lays out {@code graph}, starting from {@code seed} when it is not null. */
+    public static Layout compute(CallGraph graph, Layout seed) {
+        ForceLayout layout = new ForceLayout(graph, seed);
+        long startTime = System.currentTimeMillis();
+        for (int i = 0; i < layout.iterations; i++) {
+            layout.step(layout.initialTemperature * (1 - (double) i / layout.iterations));
+        }
+        String[] ids = new String[graph.nodeCount()];
+        for (int node = 0; node < ids.length; node++) {
+            ids[node] = graph.id(node);
+        }
+        return new Layout(ids, layout.x, layout.y, layout.iterations, layout.seeded,
+                System.currentTimeMillis() - startTime);
+    }
+
+    private double[] placedNeighbourCentre(int node, boolean[] known) {
+        double sumX = 0;
+        double sumY = 0;
+        int count = 0;
+        for (int i = 0; i < graph.fanOut(node); i++) {
+            int other = graph.target(node, i);
+            if (known[other]) {
+                sumX += x[other];
+                sumY += y[other];
+                count++;
+            }
+        }
+        for (int i = 0; i < graph.fanIn(node); i++) {
+            int other = graph.source(node, i);
+            if (known[other]) {
+                sumX += x[other];
+                sumY += y[other];
+                count++;
+            }
+        }
+        return count == 0 ? null : new double[]{sumX / count, sumY / count};
+    }
+
+    private void step(double temperature) {
+        int n = x.length;
+        if (n == 0) {
+            return;
+        }
+        QuadTree tree = new QuadTree(x, y);
+        double[] dx = new double[n];
+        double[] dy = new double[n];
+
+        // Every node only writes its own displacement, so nodes are independent
+        IntStream.range(0, n).parallel().forEach(node -> {
+            double[] force = tree.repulsion(node);
+            double fx = force[0] - GRAVITY * x[node];
+            double fy = force[1] - GRAVITY * y[node];
+            for (int i = 0; i < graph.fanOut(node); i++) {
+                int other = graph.target(node, i);
+                fx += attraction(node, other, x);
+                fy += attraction(node, other, y);
+            }
+            for (int i = 0; i < graph.fanIn(node); i++) {
+                int other = graph.source(node, i);
+                fx += attraction(node, other, x);
+                fy += attraction(node, other, y);
+            }
+            double length = Math.sqrt(fx * fx + fy * fy);
+            if (length > 0) {
+                double capped = Math.min(length, temperature);
+                dx[node] = fx / length * capped;
+                dy[node] = fy / length * capped;
+            }
+        });
+        for (int node = 0; node < n; node++) {
+            x[node] += dx[node];
+            y[node] += dy[node];
+        }
+    }
+
+    // Component along one axis of the spring force d^2 / k between two called methods
+    private double attraction(int node, int other, double[] axis) {
+        double distanceX = x[other] - x[node];
+        double distanceY = y[other] - y[node];
+        double distance = Math.sqrt(distanceX * distanceX + distanceY * distanceY);
+        return (axis[other] - axis[node]) * distance / IDEAL_LENGTH;
+    }
+
+    /**
+     * Quadtree over the current positions. Cells are kept in flat arrays and every leaf
+     * holds a contiguous range of the permuted node order, so the tree is built by in-place
+     * partitioning without allocating a node object per body.
+     */
+    private static class QuadTree {
+        private final double[] x;
+        private final double[] y;
+        private final int[] order;
+        private int cellCount = 0;
+        private int[] first = new int[64];
+        private int[] end = new int[64];
+        private int[] children = new int[64 * 4];
+        private double[] size = new double[64];
+        private double[] massX = new double[64];
+        private double[] massY = new double[64];
+
+        QuadTree(double[] x, double[] y) {
+            this.x = x;
+            this.y = y;
+            this.order = IntStream.range(0, x.length).toArray();
+            double minX = Double.MAX_VALUE;
+            double minY = Double.MAX_VALUE;
+            double maxX = -Double.MAX_VALUE;
+            double maxY = -Double.MAX_VALUE;
+            for (int i = 0; i < x.length; i++) {
+                minX = Math.min(minX, x[i]);
+                minY = Math.min(minY, y[i]);
+                maxX = Math.max(maxX, x[i]);
+                maxY = Math.max(maxY, y[i]);
+            }
+            double side = Math.max(maxX - minX, maxY - minY) + 1e-9;
+            build(0, x.length, minX, minY, side, 0);
+        }
+
+        private int build(int from, int to, double left, double top, double side, int depth) {
+            int cell = newCell();
+            first[cell] = from;
+            end[cell] = to;
+            size[cell] = side;
+            double sumX = 0;
+            double sumY = 0;
+            for (int i = from; i < to; i++) {
+                sumX += x[order[i]];
+                sumY += y[order[i]];
+            }
+            massX[cell] = sumX / (to - from);
+            massY[cell] = sumY / (to - from);
+            if (to - from <= LEAF_SIZE || depth == MAX_DEPTH) {
+                return cell;
+            }
+
+            double half = side / 2;
+            double midX = left + half;
+            double midY = top + half;
+            int splitY = partition(from, to, i -> y[i] < midY);
+            int splitTop = partition(from, splitY, i -> x[i] < midX);
+            int splitBottom = partition(splitY, to, i -> x[i] < midX);
+            int[] bounds = {from, splitTop, splitY, splitBottom, to};
+            for (int quadrant = 0; quadrant < 4; quadrant++) {
+                int child = -1;
+                if (bounds[quadrant] < bounds[quadrant + 1]) {
+                    child = build(bounds[quadrant], bounds[quadrant + 1],
+                            quadrant % 2 == 0 ? left : midX, quadrant < 2 ? top : midY, half, depth + 1);
+                }
+                children[cell * 4 + quadrant] = child;
+            }
+            return cell;
+        }
+
+        private int partition(int from, int to, IntPredicate before) {
+            int split = from;
+            for (int i = from; i < to; i++) {
+                if (before.test(order[i])) {
+                    int swap = order[i];
+                    order[i] = order[split];
+                    order[split++] = swap;
+                }
+            }
+            return split;
+        }
+
+        private int newCell() {
+            if (cellCount == first.length) {
+                int capacity = cellCount * 2;
+                first = Arrays.copyOf(first, capacity);
+                end = Arrays.copyOf(end, capacity);
+                children = Arrays.copyOf(children, capacity * 4);
+                size = Arrays.copyOf(size, capacity);
+                massX = Arrays.copyOf(massX, capacity);
+                massY = Arrays.copyOf(massY, capacity);
+            }
+            Arrays.fill(children, cellCount * 4, cellCount * 4 + 4, -1);
+            return cellCount++;
+        }
+
+        // Repulsion k^2 / d from every other node, far cells taken as one body
+        double[] repulsion(int node) {
+            double fx = 0;
+            double fy = 0;
+            int[] stack = new int[4 * MAX_DEPTH + 4];
+            int top = 0;
+            stack[top++] = 0;
+            while (top > 0) {
+                int cell = stack[--top];
+                int bodies = end[cell] - first[cell];
+                double distanceX = x[node] - massX[cell];
+                double distanceY = y[node] - massY[cell];
+                double distanceSquared = distanceX * distanceX + distanceY * distanceY;
+                boolean leaf = children[cell * 4] < 0 && children[cell * 4 + 1] < 0
+                        && children[cell * 4 + 2] < 0 && children[cell * 4 + 3] < 0;
+
+                if (!leaf && size[cell] * size[cell] < THETA * THETA * distanceSquared) {
+                    double scale = bodies * IDEAL_LENGTH * IDEAL_LENGTH / distanceSquared;
+                    fx += distanceX * scale;
+                    fy += distanceY * scale;
+                } else if (leaf) {
+                    for (int i = first[cell]; i < end[cell]; i++) {
+                        int other = order[i];
+                        if (other == node) {
+                            continue;
+                        }
+                        double ox = x[node] - x[other];
+                        double oy = y[node] - y[other];
+                        double squared = ox * ox + oy * oy;
+                        if (squared < 1e-6) {
+                            // Coincident nodes: push apart in a direction fixed by their ids
+                            ox = node < other ? 0.01 : -0.01;
+                            oy = 0;
+                            squared = 1e-4;
+                        }
+                        double scale = IDEAL_LENGTH * IDEAL_LENGTH / squared;
+                        fx += ox * scale;
+                        fy += oy * scale;
+                    }
+                } else {
+                    for (int quadrant = 0; quadrant < 4; quadrant++) {
+                        int child = children[cell * 4 + quadrant];
+                        if (child >= 0) {
+                            stack[top++] = child;
+                        }
+                    }
+                }
+            }
+            return new double[]{fx, fy};
+        }
+    }
+
+    /** Node positions produced by one layout run. */
+    public static class Layout {
+        private final String[] ids;
+        private final double[] x;
+        private final double[] y;
+        private final int iterations;
+        private final boolean seeded;
+        private final long elapsedMillis;
+
+        Layout(String[] ids, double[] x, double[] y, int iterations, boolean seeded, long elapsedMillis) {
+            this.ids = ids;
+            this.x = x;
+            this.y = y;
+            this.iterations = iterations;
+            this.seeded = seeded;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public int size() {
+            return ids.length;
+        }
+
+        /** Position of {@code id} in this layout, or a negative number when it has none. */
+        public int indexOf(String id) {
+            return Arrays.binarySearch(ids, id);
+        }
+
+        public String getId(int index) {
+            return ids[index];
+        }
+
+        public double getX(int index) {
+            return x[index];
+        }
+
+        public double getY(int index) {
+            return y[index];
+        }
+
+        public int getIterations() {
+            return iterations;
+        }
+
+        /** Whether this layout only refined the positions of an earlier one. */
+        public boolean isSeeded() {
+            return seeded;
+        }
+
+        public String toJson() {
+            StringBuilder json = new StringBuilder(64 + ids.length * 64);
+            json.append("{\"iterations\":").append(iterations)
+                    .append(",\"seeded\":").append(seeded)
+                    .append(",\"elapsedMillis\":").append(elapsedMillis)
+                    .append(",\"nodes\":[");
+            for (int i = 0; i < ids.length; i++) {
+                if (i > 0) {
+                    json.append(',');
+                }
+                // Whole units are finer than any screen the graph is drawn on
+                json.append("{\"id\":\"").append(escapeJson(ids[i])).append("\",\"x\":")
+                        .append(Math.round(x[i])).append(",\"y\":")
+                        .append(Math.round(y[i])).append('}');
+            }
+            return json.append("]}").toString();
+        }
+    }
+}
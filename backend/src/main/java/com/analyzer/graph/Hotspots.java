@@ -0,0 +1,206 @@
+package com.analyzer.graph;
+
+import java.util.*;
+import java.util.function.IntFunction;
+import java.util.function.IntToDoubleFunction;
+import java.util.stream.IntStream;
+
+import static com.analyzer.StrutsFunctionAnalyzer.escapeJson;
+
+/**
+ * Top-K rankings over a {@link CallGraph}. Every ranking is one pass over the nodes (or
+ * classes, or packages) with a min-heap bounded to K entries, so the cost is O(n log K)
+ * and the response is K entries however large the graph is. Betweenness is estimated
+ * with Brandes' algorithm from a fixed sample of source methods; the scores are computed
+ * once per graph and reused.
+ */
+public class Hotspots {
+    /** Source methods sampled for the betweenness estimate. */
+    static final int BETWEENNESS_SAMPLES = 64;
+
+    private final CallGraph graph;
+    private double[] betweenness;
+
+    public Hotspots(CallGraph graph) {
+        this.graph = graph;
+    }
+
+    /** Methods by {@code fanIn}, {@code fanOut} or {@code betweenness}. */
+    public List<Entry> topMethods(String metric, int k) {
+        switch (metric) {
+            case "fanIn":
+                return top(graph.nodeCount(), k, graph::fanIn, graph::id);
+            case "fanOut":
+                return top(graph.nodeCount(), k, graph::fanOut, graph::id);
+            case "betweenness":
+                double[] scores = betweenness();
+                return top(graph.nodeCount(), k, node -> scores[node], graph::id);
+            default:
+                throw new IllegalArgumentException("Unknown method metric: " + metric);
+        }
+    }
+
+    /** Classes by declared method count ({@code methods}) or calls made and received ({@code calls}). */
+    public List<Entry> topClasses(String metric, int k) {
+        int[] methods = new int[graph.classCount()];
+        int[] calls = new int[graph.classCount()];
+        for (int node = 0; node < graph.nodeCount(); node++) {
+            int cls = graph.classOf(node);
+            if (graph.isDeclared(node)) {
+                methods[cls]++;
+            }
+            calls[cls] += graph.fanIn(node) + graph.fanOut(node);
+        }
+        return top(graph.classCount(), k, select(metric, methods, calls), graph::className);
+    }
+
+    public List<Entry> topPackages(String metric, int k) {
+        int[] methods = new int[graph.packageCount()];
+        int[] calls = new int[graph.packageCount()];
+        for (int node = 0; node < graph.nodeCount(); node++) {
+            int pkg = graph.packageOf(node);
+            if (graph.isDeclared(node)) {
+                methods[pkg]++;
+            }
+            calls[pkg] += graph.fanIn(node) + graph.fanOut(node);
+        }
+        return top(graph.packageCount(), k, select(metric, methods, calls), graph::packageName);
+    }
+
+    private static IntToDoubleFunction select(String metric, int[] methods, int[] calls) {
+        switch (metric) {
+            case "methods":
+                return i -> methods[i];
+            case "calls":
+                return i -> calls[i];
+            default:
+                throw new IllegalArgumentException("Unknown metric: " + metric);
+        }
+    }
+
+    // Ties are broken by name so results are stable between requests
+    private static List<Entry> top(int count, int k, IntToDoubleFunction score, IntFunction<String> name) {
+        if (k <= 0) {
+            return Collections.emptyList();
+        }
+        Comparator<Entry> ascending = Comparator.comparingDouble((Entry entry) -> entry.score)
+                .thenComparing(entry -> entry.name, Comparator.reverseOrder());
+        PriorityQueue<Entry> heap = new PriorityQueue<>(Math.min(k, Math.max(1, count)) + 1, ascending);
+        for (int i = 0; i < count; i++) {
+            double value = score.applyAsDouble(i);
+            if (heap.size() < k) {
+                heap.add(new Entry(name.apply(i), value));
+            } else if (value >= heap.peek().score) {
+                Entry entry = new Entry(name.apply(i), value);
+                if (ascending.compare(entry, heap.peek()) > 0) {
+                    heap.poll();
+                    heap.add(entry);
+                }
+            }
+        }
+        List<Entry> result = new ArrayList<>(heap);
+        result.sort(ascending.reversed());
+        return result;
+    }
+
+    // Brandes' accumulation from sampled sources, scaled up to the full node count
+    private synchronized double[] betweenness() {
+        if (betweenness != null) {
+            return betweenness;
+        }
+        int n = graph.nodeCount();
+        int samples = Math.min(n, BETWEENNESS_SAMPLES);
+        int[] sources = IntStream.range(0, n).toArray();
+        Random random = new Random(n);
+        for (int i = 0; i < samples; i++) {
+            int j = i + random.nextInt(n - i);
+            int swap = sources[i];
+            sources[i] = sources[j];
+            sources[j] = swap;
+        }
+
+        double[] totals = IntStream.range(0, samples).parallel()
+                .mapToObj(i -> sources[i])
+                .collect(() -> new double[n], (sum, source) -> accumulate(source, sum), (a, b) -> {
+                    for (int i = 0; i < n; i++) {
+                        a[i] += b[i];
+                    }
+                });
+        double scale = samples == 0 ? 0 : (double) n / samples;
+        for (int i = 0; i < n; i++) {
+            totals[i] *= scale;
+        }
+        betweenness = totals;
+        return betweenness;
+    }
+
+    private void accumulate(int source, double[] sum) {
+        int n = graph.nodeCount();
+        int[] distance = new int[n];
+        Arrays.fill(distance, -1);
+        double[] paths = new double[n];
+        double[] dependency = new double[n];
+        int[] order = new int[n];
+        int head = 0;
+        int tail = 0;
+
+        distance[source] = 0;
+        paths[source] = 1;
+        order[tail++] = source;
+        while (head < tail) {
+            int node = order[head++];
+            for (int i = 0; i < graph.fanOut(node); i++) {
+                int next = graph.target(node, i);
+                if (distance[next] < 0) {
+                    distance[next] = distance[node] + 1;
+                    order[tail++] = next;
+                }
+                if (distance[next] == distance[node] + 1) {
+                    paths[next] += paths[node];
+                }
+            }
+        }
+
+        // Predecessors are the callers one level closer to the source
+        for (int i = tail - 1; i > 0; i--) {
+            int node = order[i];
+            for (int j = 0; j < graph.fanIn(node); j++) {
+                int previous = graph.source(node, j);
+                if (distance[previous] >= 0 && distance[previous] == distance[node] - 1) {
+                    dependency[previous] += paths[previous] / paths[node] * (1 + dependency[node]);
+                }
+            }
+            sum[node] += dependency[node];
+        }
+    }
+
+    public static String toJson(List<Entry> entries) {
+        StringJoiner json = new StringJoiner(",", "[", "]");
+        for (Entry entry : entries) {
+            String value = entry.score == Math.rint(entry.score)
+                    ? String.valueOf((long) entry.score)
+                    : String.format(Locale.ROOT, "%.3f", entry.score);
+            json.add("{\"name\":\"" + escapeJson(entry.name) + "\",\"value\":" + value + "}");
+        }
+        return json.toString();
+    }
+
+    // One ranked method, class or package
+    public static class Entry {
+        private final String name;
+        private final double score;
+
+        Entry(String name, double score) {
+            this.name = name;
+            this.score = score;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public double getScore() {
+            return score;
+        }
+    }
+}
@@ -0,0 +1,504 @@
+package com.analyzer.graph;
+
+import java.util.*;
+
+import static com.analyzer.StrutsFunctionAnalyzer.escapeJson;
+
+/**
+ * Name search over the methods, classes and packages of a {@link CallGraph}. Entries are
+ * grouped by distinct search key (simple method name, simple class name, full package
+ * name) and sorted by key, so every node of the two tries below covers a contiguous range
+ * of keys:
+ * <ul>
+ *   <li>a trie over the lower-cased keys answers prefix queries,</li>
+ *   <li>a trie over the camel-case hump initials ({@code getUserBalance} becomes
+ *       {@code gub}) finds candidates for hump queries such as {@code gUB}, and</li>
+ *   <li>a trigram index answers substring queries by intersecting posting lists.</li>
+ * </ul>
+ * Matches rank exact before prefix before hump before substring; within a rank shorter
+ * keys come first, then entries with more callers. Only the requested page is sorted, with
+ * a heap bounded to the end of that page.
+ */
+public class SearchIndex {
+    public enum Kind { METHOD, CLASS, PACKAGE }
+
+    public enum Match { EXACT, PREFIX, HUMP, SUBSTRING }
+
+    private final String[] keys;
+    private final String[] lowerKeys;
+    private final int[] entryOffsets;
+    private final Kind[] entryKinds;
+    private final String[] entryNames;
+    private final int[] entryWeights;
+    private final int[][] kindCounts;
+    private final Trie keyTrie;
+    private final Trie humpTrie;
+    private final int[] humpOrder;
+    private final Map<Long, int[]> trigrams;
+
+    private SearchIndex(List<Entry> entries) {
+        entries.sort(Comparator.comparing((Entry entry) -> entry.key.toLowerCase(Locale.ROOT))
+                .thenComparing(entry -> entry.key)
+                .thenComparing(Comparator.comparingInt((Entry entry) -> entry.weight).reversed())
+                .thenComparing(entry -> entry.name));
+
+        List<String> distinct = new ArrayList<>();
+        List<Integer> offsets = new ArrayList<>();
+        entryKinds = new Kind[entries.size()];
+        entryNames = new String[entries.size()];
+        entryWeights = new int[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            if (distinct.isEmpty() || !distinct.get(distinct.size() - 1).equals(entry.key)) {
+                distinct.add(entry.key);
+                offsets.add(i);
+            }
+            entryKinds[i] = entry.kind;
+            entryNames[i] = entry.name;
+            entryWeights[i] = entry.weight;
+        }
+        offsets.add(entries.size());
+        keys = distinct.toArray(new String[0]);
+        entryOffsets = offsets.stream().mapToInt(Integer::intValue).toArray();
+        kindCounts = new int[Kind.values().length][keys.length];
+        for (int key = 0; key < keys.length; key++) {
+            for (int entry = entryOffsets[key]; entry < entryOffsets[key + 1]; entry++) {
+                kindCounts[entryKinds[entry].ordinal()][key]++;
+            }
+        }
+
+        lowerKeys = new String[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            lowerKeys[i] = keys[i].toLowerCase(Locale.ROOT);
+        }
+        keyTrie = new Trie(lowerKeys);
+
+        String[] initials = new String[keys.length];
+        Integer[] order = new Integer[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            initials[i] = humpInitials(keys[i]);
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparing((Integer i) -> initials[i]));
+        humpOrder = new int[keys.length];
+        String[] sortedInitials = new String[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            humpOrder[i] = order[i];
+            sortedInitials[i] = initials[order[i]];
+        }
+        humpTrie = new Trie(sortedInitials);
+
+        trigrams = buildTrigrams(lowerKeys);
+    }
+
+    public static SearchIndex build(CallGraph graph) {
+        List<Entry> entries = new ArrayList<>(graph.nodeCount() + graph.classCount() + graph.packageCount());
+        int[] classMethods = new int[graph.classCount()];
+        int[] packageMethods = new int[graph.packageCount()];
+        for (int node = 0; node < graph.nodeCount(); node++) {
+            String id = graph.id(node);
+            entries.add(new Entry(id.substring(id.lastIndexOf('.') + 1), Kind.METHOD, id, graph.fanIn(node)));
+            classMethods[graph.classOf(node)]++;
+            packageMethods[graph.packageOf(node)]++;
+        }
+        for (int cls = 0; cls < graph.classCount(); cls++) {
+            String name = graph.className(cls);
+            entries.add(new Entry(name.substring(name.lastIndexOf('.') + 1), Kind.CLASS, name, classMethods[cls]));
+        }
+        for (int pkg = 0; pkg < graph.packageCount(); pkg++) {
+            String name = graph.packageName(pkg);
+            if (!name.isEmpty()) {
+                entries.add(new Entry(name, Kind.PACKAGE, name, packageMethods[pkg]));
+            }
+        }
+        entries.removeIf(entry -> entry.key.isEmpty());
+        return new SearchIndex(entries);
+    }
+
+    /**
+     * Returns one page of the entries matching {@code query}, restricted to {@code kind}
+     * unless it is null.
+     */
+    public Page search(String query, Kind kind, int page, int size) {
+        String trimmed = query.trim();
+        String lower = trimmed.toLowerCase(Locale.ROOT);
+        Page result = new Page(page, size);
+        if (lower.isEmpty() || size <= 0 || page < 0) {
+            return result;
+        }
+
+        // Keys in the prefix range are matched already; weaker tiers only add keys outside it
+        int[] range = keyTrie.range(lower);
+        int[] otherKeys = new int[16];
+        Match[] otherMatches = new Match[16];
+        int others = 0;
+        Set<Integer> humpKeys = new HashSet<>();
+        List<String> humps = splitQueryHumps(trimmed);
+        if (humps.size() > 1) {
+            StringBuilder initials = new StringBuilder();
+            for (String hump : humps) {
+                initials.append(Character.toLowerCase(hump.charAt(0)));
+            }
+            int[] humpRange = humpTrie.range(initials.toString());
+            for (int i = humpRange[0]; i < humpRange[1]; i++) {
+                int key = humpOrder[i];
+                if ((key < range[0] || key >= range[1]) && matchesHumps(keys[key], humps)) {
+                    if (others == otherKeys.length) {
+                        otherKeys = Arrays.copyOf(otherKeys, others * 2);
+                        otherMatches = Arrays.copyOf(otherMatches, others * 2);
+                    }
+                    otherKeys[others] = key;
+                    otherMatches[others++] = Match.HUMP;
+                    humpKeys.add(key);
+                }
+            }
+        }
+        if (lower.length() >= 3) {
+            for (int key : substringCandidates(lower)) {
+                if ((key < range[0] || key >= range[1]) && !humpKeys.contains(key) && lowerKeys[key].contains(lower)) {
+                    if (others == otherKeys.length) {
+                        otherKeys = Arrays.copyOf(otherKeys, others * 2);
+                        otherMatches = Arrays.copyOf(otherMatches, others * 2);
+                    }
+                    otherKeys[others] = key;
+                    otherMatches[others++] = Match.SUBSTRING;
+                }
+            }
+        }
+
+        // Rank entries and keep only what is needed to fill the requested page. Entries of a
+        // key are stored in ranking order, so a key stops as soon as one entry cannot enter
+        // the page, and keys whose best entry cannot enter it are skipped after a count.
+        long limit = ((long) page + 1) * size;
+        PriorityQueue<Hit> heap = new PriorityQueue<>((a, b) -> compare(b.match, b.key, b.entry, a));
+        int prefixKeys = range[1] - range[0];
+        for (int i = 0; i < prefixKeys + others; i++) {
+            int key = i < prefixKeys ? range[0] + i : otherKeys[i - prefixKeys];
+            Match match = i < prefixKeys
+                    ? (lowerKeys[key].equals(lower) ? Match.EXACT : Match.PREFIX)
+                    : otherMatches[i - prefixKeys];
+            result.total += kind == null ? entryOffsets[key + 1] - entryOffsets[key] : kindCounts[kind.ordinal()][key];
+            for (int entry = entryOffsets[key]; entry < entryOffsets[key + 1]; entry++) {
+                if (kind != null && entryKinds[entry] != kind) {
+                    continue;
+                }
+                if (heap.size() < limit) {
+                    heap.add(new Hit(key, entry, match));
+                } else if (compare(match, key, entry, heap.peek()) < 0) {
+                    heap.poll();
+                    heap.add(new Hit(key, entry, match));
+                } else {
+                    break;
+                }
+            }
+        }
+        List<Hit> ranked = new ArrayList<>(heap);
+        ranked.sort((a, b) -> compare(a.match, a.key, a.entry, b));
+        long start = (long) page * size;
+        if (start >= ranked.size()) {
+            return result;
+        }
+        for (int i = (int) start; i < ranked.size(); i++) {
+            result.hits.add(ranked.get(i));
+        }
+        return result;
+    }
+
+    // Stronger match, then shorter key, then more callers, then name
+    private int compare(Match match, int key, int entry, Hit other) {
+        int result = match.compareTo(other.match);
+        if (result == 0) {
+            result = Integer.compare(keys[key].length(), keys[other.key].length());
+        }
+        if (result == 0) {
+            result = Integer.compare(entryWeights[other.entry], entryWeights[entry]);
+        }
+        if (result == 0) {
+            result = entryNames[entry].compareTo(entryNames[other.entry]);
+        }
+        return result;
+    }
+
+    // Intersects the two rarest trigrams; the caller verifies candidates with contains()
+    private int[] substringCandidates(String lower) {
+        List<int[]> lists = new ArrayList<>();
+        for (int i = 0; i + 3 <= lower.length(); i++) {
+            int[] postings = trigrams.get(trigram(lower, i));
+            if (postings == null) {
+                return new int[0];
+            }
+            lists.add(postings);
+        }
+        lists.sort(Comparator.comparingInt(postings -> postings.length));
+        return lists.size() == 1 ? lists.get(0) : intersect(lists.get(0), lists.get(1));
+    }
+
+    private static Map<Long, int[]> buildTrigrams(String[] lowerKeys) {
+        Map<Long, int[]> lists = new HashMap<>();
+        Map<Long, Integer> sizes = new HashMap<>();
+        for (int key = 0; key < lowerKeys.length; key++) {
+            String value = lowerKeys[key];
+            for (int i = 0; i + 3 <= value.length(); i++) {
+                long gram = trigram(value, i);
+                int[] postings = lists.get(gram);
+                int count = sizes.getOrDefault(gram, 0);
+                // Keys are visited in order, so a repeated trigram in one key is the last entry
+                if (count > 0 && postings[count - 1] == key) {
+                    continue;
+                }
+                if (postings == null) {
+                    postings = new int[4];
+                } else if (count == postings.length) {
+                    postings = Arrays.copyOf(postings, count * 2);
+                }
+                postings[count] = key;
+                lists.put(gram, postings);
+                sizes.put(gram, count + 1);
+            }
+        }
+        lists.replaceAll((gram, postings) -> Arrays.copyOf(postings, sizes.get(gram)));
+        return lists;
+    }
+
+    private static long trigram(String value, int i) {
+        return ((long) value.charAt(i) << 32) | ((long) value.charAt(i + 1) << 16) | value.charAt(i + 2);
+    }
+
+    // Looks up each element of the shorter list in the longer one
+    private static int[] intersect(int[] shorter, int[] longer) {
+        int[] result = new int[shorter.length];
+        int count = 0;
+        int from = 0;
+        for (int value : shorter) {
+            int found = Arrays.binarySearch(longer, from, longer.length, value);
+            if (found >= 0) {
+                result[count++] = value;
+                from = found + 1;
+            } else {
+                from = -found - 1;
+            }
+            if (from == longer.length) {
+                break;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    // Humps start at the first character, at an upper-case letter after a lower-case one,
+    // and after '_', '$' or '.'
+    private static List<String> splitHumps(String name) {
+        List<String> humps = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c == '_' || c == '$' || c == '.') {
+                if (current.length() > 0) {
+                    humps.add(current.toString());
+                    current.setLength(0);
+                }
+                continue;
+            }
+            if (Character.isUpperCase(c) && current.length() > 0
+                    && !Character.isUpperCase(current.charAt(current.length() - 1))) {
+                humps.add(current.toString());
+                current.setLength(0);
+            } else if (Character.isUpperCase(c) && current.length() > 0 && i + 1 < name.length()
+                    && Character.isLowerCase(name.charAt(i + 1))) {
+                // Last capital of an acronym starts the next hump: "URLParser" is URL + Parser
+                humps.add(current.toString());
+                current.setLength(0);
+            }
+            current.append(c);
+        }
+        if (current.length() > 0) {
+            humps.add(current.toString());
+        }
+        return humps;
+    }
+
+    // Every capital letter of a query starts a hump, so "gUB" is g + U + B
+    private static List<String> splitQueryHumps(String query) {
+        List<String> humps = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i < query.length(); i++) {
+            char c = query.charAt(i);
+            if (c == '_' || c == '$' || c == '.' || (Character.isUpperCase(c) && current.length() > 0)) {
+                if (current.length() > 0) {
+                    humps.add(current.toString());
+                    current.setLength(0);
+                }
+                if (!Character.isUpperCase(c)) {
+                    continue;
+                }
+            }
+            current.append(c);
+        }
+        if (current.length() > 0) {
+            humps.add(current.toString());
+        }
+        return humps;
+    }
+
+    private static String humpInitials(String key) {
+        StringBuilder initials = new StringBuilder();
+        for (String hump : splitHumps(key)) {
+            initials.append(Character.toLowerCase(hump.charAt(0)));
+        }
+        return initials.toString();
+    }
+
+    // Each query hump must start the key hump at the same position, ignoring case
+    private static boolean matchesHumps(String key, List<String> queryHumps) {
+        List<String> keyHumps = splitHumps(key);
+        if (keyHumps.size() < queryHumps.size()) {
+            return false;
+        }
+        for (int i = 0; i < queryHumps.size(); i++) {
+            if (!keyHumps.get(i).toLowerCase(Locale.ROOT).startsWith(queryHumps.get(i).toLowerCase(Locale.ROOT))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Character trie over a sorted array of strings. Because the strings are sorted, the
+     * strings below any trie node form one contiguous range, so a node only stores the
+     * bounds of that range and a prefix lookup returns it without visiting the strings.
+     */
+    private static class Trie {
+        private int count = 0;
+        private char[] label = new char[64];
+        private int[] firstChild = new int[64];
+        private int[] nextSibling = new int[64];
+        private int[] from = new int[64];
+        private int[] to = new int[64];
+
+        Trie(String[] sorted) {
+            int root = newNode('\0', 0, sorted.length);
+            build(root, sorted, 0);
+        }
+
+        int[] range(String prefix) {
+            int node = 0;
+            for (int i = 0; i < prefix.length() && node >= 0; i++) {
+                char c = prefix.charAt(i);
+                int child = firstChild[node];
+                while (child >= 0 && label[child] != c) {
+                    child = nextSibling[child];
+                }
+                node = child;
+            }
+            return node < 0 ? new int[]{0, 0} : new int[]{from[node], to[node]};
+        }
+
+        // Iterative over depth to stay clear of stack limits for long keys
+        private void build(int root, String[] sorted, int rootDepth) {
+            Deque<int[]> work = new ArrayDeque<>();
+            work.push(new int[]{root, rootDepth});
+            while (!work.isEmpty()) {
+                int[] item = work.pop();
+                int node = item[0];
+                int depth = item[1];
+                int previous = -1;
+                int i = from[node];
+                while (i < to[node] && sorted[i].length() <= depth) {
+                    i++;
+                }
+                while (i < to[node]) {
+                    char c = sorted[i].charAt(depth);
+                    int start = i;
+                    while (i < to[node] && sorted[i].charAt(depth) == c) {
+                        i++;
+                    }
+                    int child = newNode(c, start, i);
+                    if (previous < 0) {
+                        firstChild[node] = child;
+                    } else {
+                        nextSibling[previous] = child;
+                    }
+                    previous = child;
+                    work.push(new int[]{child, depth + 1});
+                }
+            }
+        }
+
+        private int newNode(char c, int start, int end) {
+            if (count == label.length) {
+                int capacity = count * 2;
+                label = Arrays.copyOf(label, capacity);
+                firstChild = Arrays.copyOf(firstChild, capacity);
+                nextSibling = Arrays.copyOf(nextSibling, capacity);
+                from = Arrays.copyOf(from, capacity);
+                to = Arrays.copyOf(to, capacity);
+            }
+            label[count] = c;
+            firstChild[count] = -1;
+            nextSibling[count] = -1;
+            from[count] = start;
+            to[count] = end;
+            return count++;
+        }
+    }
+
+    private static class Entry {
+        private final String key;
+        private final Kind kind;
+        private final String name;
+        private final int weight;
+
+        Entry(String key, Kind kind, String name, int weight) {
+            this.key = key;
+            this.kind = kind;
+            this.name = name;
+            this.weight = weight;
+        }
+    }
+
+    private static class Hit {
+        private final int key;
+        private final int entry;
+        private final Match match;
+
+        Hit(int key, int entry, Match match) {
+            this.key = key;
+            this.entry = entry;
+            this.match = match;
+        }
+    }
+
+    /** One page of ranked matches and the total number of matches. */
+    public class Page {
+        private final int page;
+        private final int size;
+        private final List<Hit> hits = new ArrayList<>();
+        private int total;
+
+        Page(int page, int size) {
+            this.page = page;
+            this.size = size;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        public List<String> getNames() {
+            List<String> names = new ArrayList<>();
+            for (Hit hit : hits) {
+                names.add(entryNames[hit.entry]);
+            }
+            return names;
+        }
+
+        public String toJson() {
+            StringJoiner results = new StringJoiner(",", "[", "]");
+            for (Hit hit : hits) {
+                results.add("{\"kind\":\"" + entryKinds[hit.entry].name().toLowerCase(Locale.ROOT) + "\"" +
+                        ",\"name\":\"" + escapeJson(entryNames[hit.entry]) + "\"" +
+                        ",\"match\":\"" + hit.match.name().toLowerCase(Locale.ROOT) + "\"}");
+            }
+            return "{\"total\":" + total + ",\"page\":" + page + ",\"size\":" + size + ",\"results\":" + results + "}";
+        }
+    }
+}
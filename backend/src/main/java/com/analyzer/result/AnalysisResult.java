@@ -0,0 +1,239 @@
+package com.analyzer.result;
+
+import com.analyzer.graph.CallGraph;
+import com.analyzer.graph.ForceLayout;
+import com.analyzer.graph.Hotspots;
+import com.analyzer.graph.SearchIndex;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A finished analysis kept in serialized form. The JSON is encoded and gzip-compressed
+ * once when the result is created, so serving it again is a plain byte copy. The strong
+ * ETag is derived from the JSON content: re-analyzing an unchanged tree yields the same
+ * tag, and clients holding it get a 304 without a body. The compact call graph is kept
+ * next to the bytes for queries that should not download the whole graph, together with
+ * its name search index and, once one has been requested, its layout.
+ */
+public class AnalysisResult {
+    private final String path;
+    private final byte[] json;
+    private final byte[] gzip;
+    private final String etag;
+    private final long createdAt;
+    private final CallGraph graph;
+    private final SearchIndex searchIndex;
+    private final FutureTask<ForceLayout.Layout> layout;
+    private volatile ForceLayout.Layout layoutSeed;
+    private Hotspots hotspots;
+
+    private AnalysisResult(String path, byte[] json, byte[] gzip, String etag, CallGraph graph) {
+        this.path = path;
+        this.json = json;
+        this.gzip = gzip;
+        this.etag = etag;
+        this.createdAt = System.currentTimeMillis();
+        this.graph = graph;
+        this.searchIndex = graph != null ? SearchIndex.build(graph) : null;
+        this.layout = new FutureTask<>(() -> {
+            ForceLayout.Layout computed = ForceLayout.compute(this.graph, layoutSeed);
+            layoutSeed = null;
+            return computed;
+        });
+    }
+
+    public static AnalysisResult of(String path, String json) {
+        return of(path, json, null);
+    }
+
+    public static AnalysisResult of(String path, String json, CallGraph graph) {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        return new AnalysisResult(path, bytes, compress(bytes), "\"" + digest(bytes) + "\"", graph);
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public byte[] getJson() {
+        return json;
+    }
+
+    public byte[] getGzip() {
+        return gzip;
+    }
+
+    /** Strong ETag of the uncompressed representation, including the quotes. */
+    public String getEtag() {
+        return etag;
+    }
+
+    /** Strong ETag of the gzip representation; the bytes differ, so the tag must too. */
+    public String getGzipEtag() {
+        return etag.substring(0, etag.length() - 1) + "-gzip\"";
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    /** The call graph of this result, or null when it was not kept. */
+    public CallGraph getGraph() {
+        return graph;
+    }
+
+    /** Rankings over the call graph, created on first use and shared by later requests. */
+    public synchronized Hotspots getHotspots() {
+        if (graph == null) {
+            throw new IllegalStateException("No call graph was kept for " + path);
+        }
+        if (hotspots == null) {
+            hotspots = new Hotspots(graph);
+        }
+        return hotspots;
+    }
+
+    /** Search index over method, class and package names, built with the result. */
+    public SearchIndex getSearchIndex() {
+        if (searchIndex == null) {
+            throw new IllegalStateException("No call graph was kept for " + path);
+        }
+        return searchIndex;
+    }
+
+    /**
+     * Node positions, computed once on first use and kept with the result. The computation
+     * runs outside this result's monitor; concurrent callers wait for the first one.
+     */
+    public ForceLayout.Layout getLayout() {
+        if (graph == null) {
+            throw new IllegalStateException("No call graph was kept for " + path);
+        }
+        // Runs the computation only on the first call; later calls return immediately
+        layout.run();
+        try {
+            return layout.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the layout of " + path, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Layout of " + path + " failed", e.getCause());
+        }
+    }
+
+    /**
+     * Lets the layout of this result start from the layout of an earlier result of the
+     * same tree, if that one was computed, so small changes do not reshuffle the picture.
+     * A layout that failed seeds nothing. Must be called before the result is published.
+     */
+    public void seedLayoutFrom(AnalysisResult previous) {
+        if (!previous.layout.isDone()) {
+            layoutSeed = previous.layoutSeed;
+            return;
+        }
+        try {
+            // Done, so this never blocks
+            layoutSeed = previous.layout.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            layoutSeed = null;
+        } catch (ExecutionException e) {
+            layoutSeed = null;
+        }
+    }
+
+    /**
+     * Whether an {@code If-None-Match} header matches the representation about to be
+     * served, the gzip one or the uncompressed one. Uses the weak comparison RFC 7232
+     * prescribes for this header.
+     */
+    public boolean matches(String ifNoneMatch, boolean gzip) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String served = gzip ? getGzipEtag() : etag;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(served)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether an {@code Accept-Encoding} header allows gzip. An explicit {@code gzip} entry
+     * wins over {@code *}, and {@code q=0} refuses the coding.
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Boolean wildcard = null;
+        for (String entry : acceptEncoding.split(",")) {
+            String[] parts = entry.trim().split(";");
+            String coding = parts[0].trim().toLowerCase();
+            if (coding.equals("gzip")) {
+                return isAcceptable(parts);
+            }
+            if (coding.equals("*")) {
+                wildcard = isAcceptable(parts);
+            }
+        }
+        return wildcard != null && wildcard;
+    }
+
+    private static boolean isAcceptable(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim().toLowerCase();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2)) > 0;
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static byte[] compress(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, bytes.length / 8));
+        try (GZIPOutputStream gzipOut = new GZIPOutputStream(out, 1 << 16)) {
+            gzipOut.write(bytes);
+        } catch (IOException e) {
+            // In-memory streams do not fail
+            throw new IllegalStateException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static String digest(byte[] bytes) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(bytes);
+            StringBuilder hex = new StringBuilder();
+            for (int i = 0; i < 16; i++) {
+                hex.append(String.format("%02x", hash[i]));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -1,42 +1,114 @@
 package com.analyzer.service;
 
 import com.analyzer.StrutsFunctionAnalyzer;
+import com.analyzer.result.AnalysisResult;
 import org.springframework.stereotype.Service;
 import org.springframework.beans.factory.annotation.Autowired;
-import java.io.IOException;
-import java.util.Set;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.function.Supplier;
 
 @Service
 public class AnalyzerService {
+    // Finished results are a few megabytes each, so only the most recent ones are kept
+    static final int MAX_STORED_RESULTS = 8;
+
     private final BlacklistService blacklistService;
-    private StrutsFunctionAnalyzer analyzer;
+    private final Map<String, AnalysisResult> results = Collections.synchronizedMap(
+            new LinkedHashMap<String, AnalysisResult>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, AnalysisResult> eldest) {
+                    return size() > MAX_STORED_RESULTS;
+                }
+            });
+    // An analyzer accumulates its graph, so every analysis gets a new one
+    private Supplier<StrutsFunctionAnalyzer> analyzerFactory = StrutsFunctionAnalyzer::new;
 
     @Autowired
     public AnalyzerService(BlacklistService blacklistService) {
         this.blacklistService = blacklistService;
-        this.analyzer = new StrutsFunctionAnalyzer();
     }
 
     // Setter for testing purposes
-    void setAnalyzer(StrutsFunctionAnalyzer analyzer) {
-        this.analyzer = analyzer;
+    void setAnalyzerFactory(Supplier<StrutsFunctionAnalyzer> analyzerFactory) {
+        this.analyzerFactory = analyzerFactory;
     }
 
     public String analyzeDirectory(String path) throws IOException {
-        try {
-            // Retrieve the current blacklist
-            Set<String> blacklist = blacklistService.getBlacklist();
+        return new String(analyze(path, blacklistService.getBlacklist()).getJson(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the stored result of the last analysis of {@code path} with the current
+     * blacklist, or null when there is none. Never starts an analysis.
+     */
+    public AnalysisResult findResult(String path) {
+        return results.get(resultKey(path, blacklistService.getBlacklist()));
+    }
 
-            // Set the blacklist in the analyzer
+    private AnalysisResult analyze(String path, Set<String> blacklist) throws IOException {
+        try {
+            // Set the blacklist in a new analyzer
+            StrutsFunctionAnalyzer analyzer = analyzerFactory.get();
             analyzer.setBlacklist(blacklist);
 
             // Perform directory analysis
             analyzer.analyzeDirectory(path);
 
-            // Generate network JSON
-            return analyzer.generateNetworkJson();
+            // Generate network JSON and keep it, with its ETag and gzip copy, for later requests
+            String json = analyzer.generateNetworkJson();
+            AnalysisResult result = AnalysisResult.of(path, json, analyzer.toCallGraph());
+            // Seeded before it is published, so no request can lay it out unseeded
+            String key = resultKey(path, blacklist);
+            AnalysisResult previous = results.get(key);
+            if (previous != null) {
+                result.seedLayoutFrom(previous);
+            }
+            results.put(key, result);
+            return result;
+        } catch (IOException e) {
+            throw new IOException("Failed to analyze directory: " + e.getMessage(), e);
+        }
+    }
+
+    // Results are keyed by blacklist too, so changing it never serves a graph built without it
+    private static String resultKey(String path, Set<String> blacklist) {
+        return Paths.get(path).toAbsolutePath().normalize() + "\n" + String.join(",", new TreeSet<>(blacklist));
+    }
+
+    /**
+     * Analyzes a git working tree incrementally against {@code baseRevision}. The graph is
+     * rebuilt from the stored baseline, so a fresh analyzer is used for every call.
+     */
+    public String analyzeDirectory(String path, String baseRevision) throws IOException {
+        try {
+            StrutsFunctionAnalyzer incrementalAnalyzer = analyzerFactory.get();
+            incrementalAnalyzer.setBlacklist(blacklistService.getBlacklist());
+            incrementalAnalyzer.analyzeDirectory(path, baseRevision);
+            return incrementalAnalyzer.generateNetworkJson();
         } catch (IOException e) {
             throw new IOException("Failed to analyze directory: " + e.getMessage(), e);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Streams the analysis of {@code path} to {@code out} as NDJSON records. Each stream
+     * gets its own analyzer so concurrent streams do not share graph state.
+     */
+    public void streamDirectory(String path, OutputStream out) throws IOException {
+        StrutsFunctionAnalyzer streamingAnalyzer = analyzerFactory.get();
+        streamingAnalyzer.setBlacklist(blacklistService.getBlacklist());
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        try {
+            streamingAnalyzer.streamDirectory(path, writer);
+        } catch (IOException e) {
+            // Headers are already sent, so report the failure as the last record
+            String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            writer.write("{\"type\":\"error\",\"message\":\"" + StrutsFunctionAnalyzer.escapeJson(message) + "\"}\n");
+        }
+        writer.flush();
+    }
+}
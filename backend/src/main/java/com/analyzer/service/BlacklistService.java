@@ -1,19 +1,20 @@
 package com.analyzer.service;
 
 import org.springframework.stereotype.Service;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 
 @Service
 public class BlacklistService {
-    private Set<String> blacklistedMethods = new HashSet<>();
+    // Replaced as a whole, so concurrent requests never see a half-updated blacklist
+    private volatile Set<String> blacklistedMethods = Collections.emptySet();
 
     public void updateBlacklist(Set<String> methodNames) {
-        blacklistedMethods.clear();
-        blacklistedMethods.addAll(methodNames);
+        blacklistedMethods = Collections.unmodifiableSet(new HashSet<>(methodNames));
     }
 
     public Set<String> getBlacklist() {
         return new HashSet<>(blacklistedMethods);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,46 @@
+package com.analyzer.service;
+
+import com.analyzer.diff.GraphDiff;
+import com.analyzer.diff.GraphSnapshot;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+@Service
+public class DiffService {
+
+    /**
+     * Loads two analysis snapshots from the server's filesystem, in parallel, and returns a
+     * diff that can be streamed to a client.
+     */
+    public GraphDiff diff(String beforePath, String afterPath) throws IOException {
+        CompletableFuture<GraphSnapshot> before = CompletableFuture.supplyAsync(() -> load(beforePath));
+        CompletableFuture<GraphSnapshot> after = CompletableFuture.supplyAsync(() -> load(afterPath));
+        try {
+            return new GraphDiff(before.join(), after.join());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw e;
+        }
+    }
+
+    private GraphSnapshot load(String path) {
+        Path file = Paths.get(path);
+        try {
+            if (!Files.isRegularFile(file)) {
+                throw new IOException("No such snapshot file: " + path);
+            }
+            return GraphSnapshot.read(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
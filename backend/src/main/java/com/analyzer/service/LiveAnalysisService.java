@@ -0,0 +1,103 @@
+package com.analyzer.service;
+
+import com.analyzer.StrutsFunctionAnalyzer;
+import com.analyzer.watch.DirectoryWatcher;
+import com.analyzer.watch.GraphDelta;
+import com.analyzer.watch.LiveGraph;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Keeps one watched source tree and pushes graph deltas to server-sent event subscribers.
+ * Every subscriber first receives a {@code snapshot} event with the whole graph, followed
+ * by a {@code delta} event for each batch of file changes.
+ */
+@Service
+public class LiveAnalysisService {
+    private final BlacklistService blacklistService;
+    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+    private DirectoryWatcher watcher;
+    private LiveGraph graph;
+
+    @Autowired
+    public LiveAnalysisService(BlacklistService blacklistService) {
+        this.blacklistService = blacklistService;
+    }
+
+    /** Starts watching {@code path}, replacing any tree that is already being watched. */
+    public synchronized GraphDelta start(String path) throws IOException {
+        Path root = Paths.get(path);
+        if (!Files.isDirectory(root)) {
+            throw new IOException("Not a directory: " + path);
+        }
+        stop();
+
+        StrutsFunctionAnalyzer analyzer = new StrutsFunctionAnalyzer();
+        analyzer.setBlacklist(blacklistService.getBlacklist());
+        graph = new LiveGraph(analyzer);
+        watcher = new DirectoryWatcher(root, graph, this::broadcast);
+
+        // Deltas are broadcast under the graph's monitor, so none can overtake the snapshot
+        synchronized (graph) {
+            GraphDelta snapshot = graph.snapshot();
+            for (SseEmitter emitter : emitters) {
+                send(emitter, "snapshot", snapshot);
+            }
+            return snapshot;
+        }
+    }
+
+    @PreDestroy
+    public synchronized void stop() throws IOException {
+        if (watcher != null) {
+            watcher.close();
+            watcher = null;
+            graph = null;
+        }
+    }
+
+    public synchronized boolean isWatching() {
+        return watcher != null;
+    }
+
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(0L);
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(() -> emitters.remove(emitter));
+        emitter.onError(e -> emitters.remove(emitter));
+
+        synchronized (this) {
+            if (graph == null) {
+                emitters.add(emitter);
+                return emitter;
+            }
+            // Registered together with the snapshot, so every later delta arrives after it
+            synchronized (graph) {
+                send(emitter, "snapshot", graph.snapshot());
+                emitters.add(emitter);
+            }
+        }
+        return emitter;
+    }
+
+    private void broadcast(GraphDelta delta) {
+        for (SseEmitter emitter : emitters) {
+            send(emitter, "delta", delta);
+        }
+    }
+
+    private void send(SseEmitter emitter, String name, GraphDelta delta) {
+        try {
+            emitter.send(SseEmitter.event().name(name).data(delta.toJson()));
+        } catch (IOException | IllegalStateException e) {
+            emitters.remove(emitter);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.analyzer.shard;
+
+import com.analyzer.FileFacts;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Reads a partial graph written by {@link PartialGraphWriter}. File facts are read one at
+ * a time so a shard never has to be held in memory whole; the packages in the trailer are
+ * read separately with {@link #readPackages(Path)}.
+ */
+public class PartialGraphReader implements Closeable {
+    private final DataInputStream in;
+    private final List<String> strings = new ArrayList<>();
+    private String sourcePath;
+
+    public PartialGraphReader(InputStream in) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(in));
+        if (this.in.readInt() != PartialGraphWriter.MAGIC) {
+            throw new IOException("Not a partial graph file");
+        }
+        int version = this.in.readInt();
+        if (version != PartialGraphWriter.VERSION) {
+            throw new IOException("Unsupported partial graph version: " + version);
+        }
+    }
+
+    /** Reads the package trailer of a partial graph file without reading its file records. */
+    public static List<String> readPackages(Path file) throws IOException {
+        try (RandomAccessFile in = new RandomAccessFile(file.toFile(), "r")) {
+            if (in.length() < 17 || in.readInt() != PartialGraphWriter.MAGIC
+                    || in.readInt() != PartialGraphWriter.VERSION) {
+                throw new IOException("Not a partial graph file: " + file);
+            }
+            in.seek(in.length() - 8);
+            in.seek(in.readLong());
+            int count = readVarInt(in);
+            List<String> packages = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                byte[] bytes = new byte[readVarInt(in)];
+                in.readFully(bytes);
+                packages.add(new String(bytes, StandardCharsets.UTF_8));
+            }
+            return packages;
+        }
+    }
+
+    /** Returns the next file's facts, or null once the shard is exhausted. */
+    public FileFacts readFile() throws IOException {
+        if (!in.readBoolean()) {
+            sourcePath = null;
+            return null;
+        }
+        sourcePath = readString();
+        String packageName = readString();
+        String className = readString();
+        Set<String> imports = readStrings(new HashSet<>());
+        Set<String> classAnnotations = readStrings(new HashSet<>());
+        String superClass = readString();
+        Set<String> interfaces = readStrings(new HashSet<>());
+        int methodCount = readVarInt();
+        List<FileFacts.MethodFacts> methods = new ArrayList<>(methodCount);
+        for (int i = 0; i < methodCount; i++) {
+            String name = readString();
+            String accessLevel = readString();
+            boolean isStatic = in.readBoolean();
+            Set<String> annotations = readStrings(new HashSet<>());
+            List<String> calls = readStrings(new ArrayList<>());
+            methods.add(new FileFacts.MethodFacts(name, accessLevel, isStatic, annotations, calls));
+        }
+        return new FileFacts(packageName, className, imports, classAnnotations, superClass, interfaces, methods);
+    }
+
+    /** Source path stored with the file most recently returned by {@link #readFile()}, if any. */
+    public String getSourcePath() {
+        return sourcePath;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private <C extends Collection<String>> C readStrings(C target) throws IOException {
+        int count = readVarInt();
+        for (int i = 0; i < count; i++) {
+            target.add(readString());
+        }
+        return target;
+    }
+
+    private String readString() throws IOException {
+        int ref = readVarInt();
+        if (ref == 0) {
+            return null;
+        }
+        int id = ref - 1;
+        if (id < strings.size()) {
+            return strings.get(id);
+        }
+        if (id != strings.size()) {
+            throw new IOException("Corrupt partial graph: string " + id + " out of sequence");
+        }
+        byte[] bytes = new byte[readVarInt()];
+        in.readFully(bytes);
+        String value = new String(bytes, StandardCharsets.UTF_8);
+        strings.add(value);
+        return value;
+    }
+
+    private int readVarInt() throws IOException {
+        return readVarInt(in);
+    }
+
+    private static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
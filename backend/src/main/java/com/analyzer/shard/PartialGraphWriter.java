@@ -0,0 +1,130 @@
+package com.analyzer.shard;
+
+import com.analyzer.FileFacts;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Writes a shard's partial graph: the facts of each Action file, with calls left
+ * unresolved, followed by a trailer with the packages the shard declares. Files are
+ * written as they are extracted, so a worker never holds its shard in memory; the
+ * trailer's offset is the last eight bytes, so the coordinator can read every shard's
+ * packages without scanning the files. Each file may carry its source path so the format
+ * can also hold a baseline keyed by file. Strings in file records are interned, so every
+ * distinct name is written once and later occurrences are a small integer reference.
+ */
+public class PartialGraphWriter implements Closeable {
+    static final int MAGIC = 0x53464150; // "SFAP"
+    static final int VERSION = 3;
+
+    private final CountingOutputStream counter;
+    private final DataOutputStream out;
+    private final Map<String, Integer> stringIds = new HashMap<>();
+    private final Set<String> packages = new LinkedHashSet<>();
+
+    public PartialGraphWriter(OutputStream out) throws IOException {
+        this.counter = new CountingOutputStream(new BufferedOutputStream(out));
+        this.out = new DataOutputStream(counter);
+        this.out.writeInt(MAGIC);
+        this.out.writeInt(VERSION);
+    }
+
+    /** Adds packages to the trailer; may be called at any time before {@link #close()}. */
+    public void writePackages(Collection<String> packages) {
+        this.packages.addAll(packages);
+    }
+
+    public void writeFile(FileFacts facts) throws IOException {
+        writeFile(null, facts);
+    }
+
+    public void writeFile(String sourcePath, FileFacts facts) throws IOException {
+        out.writeBoolean(true);
+        writeString(sourcePath);
+        writeString(facts.getPackageName());
+        writeString(facts.getClassName());
+        writeStrings(facts.getImports());
+        writeStrings(facts.getClassAnnotations());
+        writeString(facts.getSuperClass());
+        writeStrings(facts.getInterfaces());
+        writeVarInt(facts.getMethods().size());
+        for (FileFacts.MethodFacts method : facts.getMethods()) {
+            writeString(method.getName());
+            writeString(method.getAccessLevel());
+            out.writeBoolean(method.isStatic());
+            writeStrings(method.getAnnotations());
+            writeStrings(method.getCalls());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.writeBoolean(false);
+        long trailerOffset = counter.count; // DataOutputStream.size() stops counting at 2 GB
+        writeVarInt(packages.size());
+        for (String packageName : packages) {
+            // Not interned: the trailer is read without the string table of the file records
+            byte[] bytes = packageName.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(bytes.length);
+            out.write(bytes);
+        }
+        out.writeLong(trailerOffset);
+        out.close();
+    }
+
+    private void writeStrings(Collection<String> values) throws IOException {
+        writeVarInt(values.size());
+        for (String value : values) {
+            writeString(value);
+        }
+    }
+
+    // 0 is null, n > 0 refers to the (n-1)th string; a new string is written inline after its id
+    private void writeString(String value) throws IOException {
+        if (value == null) {
+            writeVarInt(0);
+            return;
+        }
+        Integer id = stringIds.get(value);
+        if (id != null) {
+            writeVarInt(id + 1);
+            return;
+        }
+        id = stringIds.size();
+        stringIds.put(value, id);
+        writeVarInt(id + 1);
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private void writeVarInt(int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+        long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.analyzer.shard;
+
+import com.analyzer.FileFacts;
+import com.analyzer.StrutsFunctionAnalyzer;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.jar.JarFile;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Analyzes a source tree with several local worker JVMs. The tree is split into shards
+ * along its top-level directories (modules), each shard is parsed by a {@link ShardWorker}
+ * process, and the resulting partial graphs are merged into an analyzer. Calls are only
+ * resolved during the merge, once the packages of every shard are known, so the merged
+ * graph is the same as a single-process {@link StrutsFunctionAnalyzer#analyzeDirectory}.
+ */
+public class ShardCoordinator {
+    private static final String BOOT_LAUNCHER = "org.springframework.boot.loader.PropertiesLauncher";
+
+    private final int workers;
+    private final String workerHeap;
+
+    /**
+     * @param workers    number of worker processes to run at once
+     * @param workerHeap maximum heap of each worker, e.g. {@code 512m}, or null for the JVM default
+     */
+    public ShardCoordinator(int workers, String workerHeap) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("At least one worker is required");
+        }
+        this.workers = workers;
+        this.workerHeap = workerHeap;
+    }
+
+    public void analyze(String directoryPath, StrutsFunctionAnalyzer analyzer) throws IOException {
+        Path root = Paths.get(directoryPath);
+        List<List<Path>> shards = split(root, analyzer.listSourceFiles(directoryPath), workers);
+
+        Path workDir = Files.createTempDirectory("analyzer-shards");
+        try {
+            List<Path> outputs = runWorkers(shards, workDir);
+            merge(outputs, analyzer);
+        } finally {
+            try (Stream<Path> files = Files.walk(workDir)) {
+                files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            }
+        }
+    }
+
+    /**
+     * Splits files into at most {@code shardCount} contiguous shards, cutting between
+     * top-level directories where possible. Keeping the walk order intact is what makes
+     * the merged graph identical to a single-process run.
+     */
+    static List<List<Path>> split(Path root, List<Path> files, int shardCount) {
+        Map<String, List<Path>> modules = new LinkedHashMap<>();
+        for (Path file : files) {
+            Path relative = root.relativize(file);
+            String module = relative.getNameCount() > 1 ? relative.getName(0).toString() : "";
+            modules.computeIfAbsent(module, k -> new ArrayList<>()).add(file);
+        }
+
+        int target = Math.max(1, (files.size() + shardCount - 1) / shardCount);
+        List<List<Path>> shards = new ArrayList<>();
+        List<Path> current = new ArrayList<>();
+        for (List<Path> moduleFiles : modules.values()) {
+            for (Path file : moduleFiles) {
+                current.add(file);
+                // Oversized modules are split so one module cannot occupy a single worker
+                if (current.size() >= 2 * target && shards.size() < shardCount - 1) {
+                    shards.add(current);
+                    current = new ArrayList<>();
+                }
+            }
+            if (current.size() >= target && shards.size() < shardCount - 1) {
+                shards.add(current);
+                current = new ArrayList<>();
+            }
+        }
+        if (!current.isEmpty()) {
+            shards.add(current);
+        }
+        return shards;
+    }
+
+    private List<Path> runWorkers(List<List<Path>> shards, Path workDir) throws IOException {
+        List<Process> processes = new ArrayList<>();
+        List<Path> outputs = new ArrayList<>();
+        List<Path> logs = new ArrayList<>();
+        try {
+            for (int i = 0; i < shards.size(); i++) {
+                Path fileList = workDir.resolve("shard-" + i + ".files");
+                Path output = workDir.resolve("shard-" + i + ".graph");
+                Path log = workDir.resolve("shard-" + i + ".log");
+                Files.write(fileList, shards.get(i).stream()
+                        .map(Path::toString)
+                        .collect(Collectors.toList()), StandardCharsets.UTF_8);
+
+                List<String> command = workerCommand();
+                command.add(fileList.toString());
+                command.add(output.toString());
+                processes.add(new ProcessBuilder(command)
+                        .redirectErrorStream(true)
+                        .redirectOutput(log.toFile())
+                        .start());
+                outputs.add(output);
+                logs.add(log);
+            }
+
+            for (int i = 0; i < processes.size(); i++) {
+                int exitCode = processes.get(i).waitFor();
+                if (exitCode != 0) {
+                    throw new IOException("Shard worker " + i + " failed with exit code " + exitCode
+                            + ": " + new String(Files.readAllBytes(logs.get(i)), StandardCharsets.UTF_8).trim());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for shard workers");
+        } finally {
+            processes.forEach(Process::destroy);
+        }
+        return outputs;
+    }
+
+    private void merge(List<Path> outputs, StrutsFunctionAnalyzer analyzer) throws IOException {
+        // Packages first: cross-shard calls resolve against the packages of every shard
+        for (Path output : outputs) {
+            analyzer.addProjectPackages(PartialGraphReader.readPackages(output));
+        }
+
+        for (Path output : outputs) {
+            try (PartialGraphReader reader = new PartialGraphReader(Files.newInputStream(output))) {
+                FileFacts facts;
+                while ((facts = reader.readFile()) != null) {
+                    analyzer.applyFileFacts(facts);
+                }
+            }
+        }
+    }
+
+    private List<String> workerCommand() throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        if (workerHeap != null) {
+            command.add("-Xmx" + workerHeap);
+        }
+
+        String classPath = System.getProperty("java.class.path");
+        command.add("-cp");
+        command.add(classPath);
+        if (isBootJar(classPath)) {
+            // Classes of a repackaged jar live under BOOT-INF and need the Boot launcher
+            command.add("-Dloader.main=" + ShardWorker.class.getName());
+            command.add(BOOT_LAUNCHER);
+        } else {
+            command.add(ShardWorker.class.getName());
+        }
+        return command;
+    }
+
+    private boolean isBootJar(String classPath) throws IOException {
+        if (classPath.contains(File.pathSeparator) || !classPath.endsWith(".jar")) {
+            return false;
+        }
+        try (JarFile jar = new JarFile(classPath)) {
+            return jar.getEntry("BOOT-INF/classes/") != null;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.analyzer.shard;
+
+import com.analyzer.FileFacts;
+import com.analyzer.StrutsFunctionAnalyzer;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Entry point of a shard worker process. Reads the source files listed in a file list,
+ * extracts their facts and writes them as a partial graph for the coordinator to merge.
+ */
+public class ShardWorker {
+
+    // Records are written as soon as a file is parsed; only the package names are kept
+    static void run(Path fileList, Path output) throws IOException {
+        StrutsFunctionAnalyzer analyzer = new StrutsFunctionAnalyzer();
+        Set<String> packages = new LinkedHashSet<>();
+
+        try (PartialGraphWriter writer = new PartialGraphWriter(Files.newOutputStream(output));
+             BufferedReader files = Files.newBufferedReader(fileList, StandardCharsets.UTF_8)) {
+            String file;
+            while ((file = files.readLine()) != null) {
+                if (file.isEmpty()) {
+                    continue;
+                }
+                FileFacts facts;
+                try {
+                    facts = analyzer.extractFileFacts(new String(Files.readAllBytes(Paths.get(file))));
+                } catch (IOException e) {
+                    System.err.println("Error analyzing file: " + file);
+                    continue;
+                }
+                if (facts.getPackageName() != null) {
+                    packages.add(facts.getPackageName());
+                }
+                if (facts.getClassName() != null) {
+                    writer.writeFile(facts);
+                }
+            }
+            writer.writePackages(packages);
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: java ShardWorker <file_list> <output_file>");
+            System.exit(2);
+        }
+        try {
+            run(Paths.get(args[0]), Paths.get(args[1]));
+        } catch (IOException e) {
+            System.err.println("Shard worker failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
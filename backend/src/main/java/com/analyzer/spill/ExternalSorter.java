@@ -0,0 +1,194 @@
+package com.analyzer.spill;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Sorts and de-duplicates string records that may not fit in memory. Records are buffered
+ * until their estimated size exceeds the budget, then sorted and written to a run file.
+ * {@link #sorted()} merges the runs with the remaining buffer in one k-way pass, after
+ * first collapsing runs whenever there are more than {@link #MAX_FAN_IN} of them.
+ */
+public class ExternalSorter implements Closeable {
+    static final int MAX_FAN_IN = 64;
+
+    // Rough per-record cost: String header, char array header and list slot
+    private static final int RECORD_OVERHEAD = 64;
+
+    private final Path directory;
+    private final String name;
+    private final long budgetBytes;
+    private final SpillStatistics statistics;
+    private final List<Path> runs = new ArrayList<>();
+    private List<String> buffer = new ArrayList<>();
+    private long bufferedBytes = 0;
+
+    public ExternalSorter(Path directory, String name, long budgetBytes, SpillStatistics statistics) {
+        this.directory = directory;
+        this.name = name;
+        this.budgetBytes = budgetBytes;
+        this.statistics = statistics;
+    }
+
+    public void add(String record) throws IOException {
+        buffer.add(record);
+        bufferedBytes += RECORD_OVERHEAD + 2L * record.length();
+        if (bufferedBytes > budgetBytes) {
+            spill();
+        }
+    }
+
+    /** Returns all records added so far in sorted order without duplicates. */
+    public CloseableIterator sorted() throws IOException {
+        while (runs.size() > MAX_FAN_IN) {
+            List<Path> batch = new ArrayList<>(runs.subList(0, MAX_FAN_IN));
+            runs.subList(0, MAX_FAN_IN).clear();
+            Path merged = newRunFile();
+            try (MergeIterator iterator = new MergeIterator(batch, Collections.emptyList());
+                 DataOutputStream out = openRun(merged)) {
+                while (iterator.hasNext()) {
+                    out.writeUTF(iterator.next());
+                }
+            }
+            for (Path run : batch) {
+                Files.deleteIfExists(run);
+            }
+            runs.add(merged);
+            statistics.mergePasses++;
+        }
+        Collections.sort(buffer);
+        return new MergeIterator(new ArrayList<>(runs), buffer);
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (Path run : runs) {
+            Files.deleteIfExists(run);
+        }
+        runs.clear();
+        buffer = new ArrayList<>();
+    }
+
+    private void spill() throws IOException {
+        Collections.sort(buffer);
+        Path run = newRunFile();
+        String previous = null;
+        long written = 0;
+        try (DataOutputStream out = openRun(run)) {
+            for (String record : buffer) {
+                if (!record.equals(previous)) {
+                    out.writeUTF(record);
+                    written++;
+                    previous = record;
+                }
+            }
+        }
+        runs.add(run);
+        statistics.runsWritten++;
+        statistics.recordsSpilled += written;
+        statistics.bytesWritten += Files.size(run);
+        buffer = new ArrayList<>();
+        bufferedBytes = 0;
+    }
+
+    private Path newRunFile() throws IOException {
+        return Files.createTempFile(directory, name, ".run");
+    }
+
+    private static DataOutputStream openRun(Path run) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run), 1 << 16));
+    }
+
+    /** Iterator over sorted records that holds open run files until closed. */
+    public interface CloseableIterator extends Iterator<String>, Closeable {
+    }
+
+    private static class MergeIterator implements CloseableIterator {
+        private final PriorityQueue<Source> queue = new PriorityQueue<>(Comparator.comparing((Source s) -> s.current));
+        private final List<DataInputStream> inputs = new ArrayList<>();
+        private String last;
+        private String next;
+
+        MergeIterator(List<Path> runs, List<String> buffer) throws IOException {
+            for (Path run : runs) {
+                DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(run), 1 << 16));
+                inputs.add(in);
+                offer(new Source(in, null));
+            }
+            offer(new Source(null, buffer.iterator()));
+            advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public String next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            String result = next;
+            try {
+                advance();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return result;
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (DataInputStream in : inputs) {
+                in.close();
+            }
+        }
+
+        // Skips records equal to the last one returned, so output is de-duplicated across runs
+        private void advance() throws IOException {
+            next = null;
+            while (!queue.isEmpty()) {
+                Source source = queue.poll();
+                String record = source.current;
+                offer(source);
+                if (!record.equals(last)) {
+                    last = record;
+                    next = record;
+                    return;
+                }
+            }
+        }
+
+        private void offer(Source source) throws IOException {
+            if (source.read()) {
+                queue.add(source);
+            }
+        }
+    }
+
+    private static class Source {
+        private final DataInputStream in;
+        private final Iterator<String> memory;
+        private String current;
+
+        Source(DataInputStream in, Iterator<String> memory) {
+            this.in = in;
+            this.memory = memory;
+        }
+
+        boolean read() throws IOException {
+            if (memory != null) {
+                current = memory.hasNext() ? memory.next() : null;
+                return current != null;
+            }
+            try {
+                current = in.readUTF();
+                return true;
+            } catch (EOFException e) {
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.analyzer.spill;
+
+/**
+ * Counters describing how much of a low-memory analysis had to go to disk.
+ */
+public class SpillStatistics {
+    long runsWritten = 0;
+    long recordsSpilled = 0;
+    long bytesWritten = 0;
+    long mergePasses = 0;
+
+    public long getRunsWritten() {
+        return runsWritten;
+    }
+
+    public long getRecordsSpilled() {
+        return recordsSpilled;
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    public long getMergePasses() {
+        return mergePasses;
+    }
+
+    @Override
+    public String toString() {
+        return "Spilled " + recordsSpilled + " records in " + runsWritten + " runs ("
+                + bytesWritten / 1024 + " KB, " + mergePasses + " extra merge passes)";
+    }
+}
@@ -0,0 +1,118 @@
+package com.analyzer.spill;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Disk-backed store for the method ids and call edges of a graph too large for the heap.
+ * Edges are kept twice, ordered by source and by target, so node statistics and links can
+ * both be produced with sequential merges. The heap budget is shared by the three sorters.
+ */
+public class SpillingGraph implements Closeable {
+    private static final char SEPARATOR = '\0';
+
+    private final Path directory;
+    private final boolean ownsDirectory;
+    private final SpillStatistics statistics = new SpillStatistics();
+    private final ExternalSorter nodes;
+    private final ExternalSorter edgesBySource;
+    private final ExternalSorter edgesByTarget;
+
+    /**
+     * @param spillDirectory where run files go, or null for a new temporary directory
+     * @param heapBudget     approximate number of bytes of records to keep in memory
+     */
+    public SpillingGraph(Path spillDirectory, long heapBudget) throws IOException {
+        this.ownsDirectory = spillDirectory == null;
+        this.directory = ownsDirectory ? Files.createTempDirectory("analyzer-spill") : Files.createDirectories(spillDirectory);
+        long share = Math.max(1, heapBudget / 3);
+        this.nodes = new ExternalSorter(directory, "nodes", share, statistics);
+        this.edgesBySource = new ExternalSorter(directory, "edges-by-source", share, statistics);
+        this.edgesByTarget = new ExternalSorter(directory, "edges-by-target", share, statistics);
+    }
+
+    public void addNode(String id) throws IOException {
+        nodes.add(id);
+    }
+
+    public void addEdge(String source, String target) throws IOException {
+        edgesBySource.add(source + SEPARATOR + target);
+        edgesByTarget.add(target + SEPARATOR + source);
+    }
+
+    /** Declared method ids, sorted and unique. */
+    public ExternalSorter.CloseableIterator nodes() throws IOException {
+        return nodes.sorted();
+    }
+
+    /** Unique edges as {@code source, target} pairs ordered by source, then target. */
+    public EdgeIterator edgesBySource() throws IOException {
+        return new EdgeIterator(edgesBySource.sorted(), false);
+    }
+
+    /** Unique edges as {@code source, target} pairs ordered by target, then source. */
+    public EdgeIterator edgesByTarget() throws IOException {
+        return new EdgeIterator(edgesByTarget.sorted(), true);
+    }
+
+    public SpillStatistics getStatistics() {
+        return statistics;
+    }
+
+    @Override
+    public void close() throws IOException {
+        nodes.close();
+        edgesBySource.close();
+        edgesByTarget.close();
+        if (ownsDirectory) {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    /** Iterator over edges that can look at the next edge without consuming it. */
+    public static class EdgeIterator implements Closeable {
+        private final ExternalSorter.CloseableIterator records;
+        private final boolean swapped;
+        private String[] peeked;
+
+        EdgeIterator(ExternalSorter.CloseableIterator records, boolean swapped) {
+            this.records = records;
+            this.swapped = swapped;
+        }
+
+        public boolean hasNext() {
+            return peeked != null || records.hasNext();
+        }
+
+        public String[] peek() {
+            if (peeked == null && records.hasNext()) {
+                String record = records.next();
+                int split = record.indexOf(SEPARATOR);
+                String first = record.substring(0, split);
+                String second = record.substring(split + 1);
+                peeked = swapped ? new String[]{second, first} : new String[]{first, second};
+            }
+            return peeked;
+        }
+
+        public String[] next() {
+            String[] edge = peek();
+            if (edge == null) {
+                throw new NoSuchElementException();
+            }
+            peeked = null;
+            return edge;
+        }
+
+        @Override
+        public void close() throws IOException {
+            records.close();
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.analyzer.watch;
+
+import java.io.*;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * Watches a source tree and keeps a {@link LiveGraph} in sync with it. File system events
+ * are collected into a pending set and applied in one batch once the tree has been quiet
+ * for {@link #QUIET_PERIOD_MS}, so a save that touches many files, or a branch switch,
+ * costs one update instead of one per event. A steady stream of events is still flushed
+ * at least every {@link #MAX_DELAY_MS}.
+ */
+public class DirectoryWatcher implements Closeable {
+    static final long QUIET_PERIOD_MS = 200;
+    static final long MAX_DELAY_MS = 2000;
+
+    private final Path root;
+    private final LiveGraph graph;
+    private final Consumer<GraphDelta> listener;
+    private final WatchService watchService;
+    private final Map<WatchKey, Path> keys = new ConcurrentHashMap<>();
+    private final Set<Path> pending = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "watch-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Thread pollThread;
+    private ScheduledFuture<?> scheduledFlush;
+    private long firstPendingAt;
+    private volatile boolean closed;
+
+    /**
+     * Performs the initial full scan of {@code root} and starts watching it. Deltas are
+     * passed to {@code listener} on the flush thread while it holds the graph's monitor,
+     * so a reader that takes a snapshot under that monitor sees each change exactly once;
+     * empty deltas are not reported.
+     */
+    public DirectoryWatcher(Path root, LiveGraph graph, Consumer<GraphDelta> listener) throws IOException {
+        this.root = root.toAbsolutePath().normalize();
+        this.graph = graph;
+        this.listener = listener;
+        this.watchService = this.root.getFileSystem().newWatchService();
+        registerTree(this.root);
+        graph.update(Collections.singleton(this.root));
+
+        this.pollThread = new Thread(this::poll, "watch-poll");
+        pollThread.setDaemon(true);
+        pollThread.start();
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        scheduler.shutdownNow();
+        watchService.close();
+        pollThread.interrupt();
+    }
+
+    private void poll() {
+        while (!closed) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            Path directory = keys.get(key);
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == OVERFLOW || directory == null) {
+                    // Events were lost; the size/mtime check makes the rescan cheap
+                    enqueue(root);
+                    continue;
+                }
+                Path changed = directory.resolve((Path) event.context());
+                if (event.kind() == ENTRY_CREATE && Files.isDirectory(changed, LinkOption.NOFOLLOW_LINKS)) {
+                    try {
+                        registerTree(changed);
+                    } catch (IOException e) {
+                        System.err.println("Error watching directory: " + changed);
+                    }
+                }
+                enqueue(changed);
+            }
+            if (!key.reset()) {
+                keys.remove(key);
+            }
+        }
+    }
+
+    // Restarts the quiet period on every event, unless the batch has already waited too long
+    private synchronized void enqueue(Path path) {
+        long now = System.currentTimeMillis();
+        if (pending.isEmpty()) {
+            firstPendingAt = now;
+        }
+        pending.add(path);
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+        }
+        long delay = Math.min(QUIET_PERIOD_MS, Math.max(0, firstPendingAt + MAX_DELAY_MS - now));
+        try {
+            scheduledFlush = scheduler.schedule(this::flush, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Closed while events were still arriving
+        }
+    }
+
+    private void flush() {
+        List<Path> batch;
+        synchronized (this) {
+            batch = new ArrayList<>(pending);
+            pending.clear();
+            scheduledFlush = null;
+        }
+        if (batch.isEmpty() || closed) {
+            return;
+        }
+        try {
+            synchronized (graph) {
+                GraphDelta delta = graph.update(batch);
+                if (!delta.isEmpty()) {
+                    listener.accept(delta);
+                }
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Error updating live graph: " + e.getMessage());
+        }
+    }
+
+    private void registerTree(Path start) throws IOException {
+        Files.walkFileTree(start, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                keys.put(dir.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE), dir);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
@@ -0,0 +1,72 @@
+package com.analyzer.watch;
+
+import java.util.*;
+
+import static com.analyzer.StrutsFunctionAnalyzer.escapeJson;
+
+/**
+ * Nodes and links that appeared in or disappeared from a live graph in one update.
+ */
+public class GraphDelta {
+    private final List<String> addedNodes = new ArrayList<>();
+    private final List<String> removedNodes = new ArrayList<>();
+    private final List<String[]> addedLinks = new ArrayList<>();
+    private final List<String[]> removedLinks = new ArrayList<>();
+    private int changedFiles;
+    private long elapsedMillis;
+
+    public List<String> getAddedNodes() {
+        return addedNodes;
+    }
+
+    public List<String> getRemovedNodes() {
+        return removedNodes;
+    }
+
+    public List<String[]> getAddedLinks() {
+        return addedLinks;
+    }
+
+    public List<String[]> getRemovedLinks() {
+        return removedLinks;
+    }
+
+    public int getChangedFiles() {
+        return changedFiles;
+    }
+
+    void setChangedFiles(int changedFiles) {
+        this.changedFiles = changedFiles;
+    }
+
+    void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public boolean isEmpty() {
+        return addedNodes.isEmpty() && removedNodes.isEmpty() && addedLinks.isEmpty() && removedLinks.isEmpty();
+    }
+
+    public String toJson() {
+        return "{\"added\":{\"nodes\":" + nodesJson(addedNodes) + ",\"links\":" + linksJson(addedLinks) + "}" +
+                ",\"removed\":{\"nodes\":" + nodesJson(removedNodes) + ",\"links\":" + linksJson(removedLinks) + "}" +
+                ",\"changedFiles\":" + changedFiles +
+                ",\"elapsedMillis\":" + elapsedMillis + "}";
+    }
+
+    private static String nodesJson(List<String> nodes) {
+        StringJoiner json = new StringJoiner(",", "[", "]");
+        for (String node : nodes) {
+            json.add("\"" + escapeJson(node) + "\"");
+        }
+        return json.toString();
+    }
+
+    private static String linksJson(List<String[]> links) {
+        StringJoiner json = new StringJoiner(",", "[", "]");
+        for (String[] link : links) {
+            json.add("{\"source\":\"" + escapeJson(link[0]) + "\",\"target\":\"" + escapeJson(link[1]) + "\"}");
+        }
+        return json.toString();
+    }
+}
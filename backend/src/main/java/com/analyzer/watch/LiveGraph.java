@@ -0,0 +1,266 @@
+package com.analyzer.watch;
+
+import com.analyzer.FileFacts;
+import com.analyzer.StrutsFunctionAnalyzer;
+
+import java.io.*;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Call graph of a source tree that is kept up to date file by file. Every file remembers
+ * the nodes and links it contributes, and the graph reference-counts them, so re-parsing
+ * a file only has to retract its old contribution and add the new one. Files without a
+ * package resolve their calls through imports, so they are the only ones re-resolved
+ * when the set of project packages changes.
+ */
+public class LiveGraph {
+    private static final char SEPARATOR = '\0';
+
+    private final StrutsFunctionAnalyzer analyzer;
+    private final Map<Path, FileState> files = new HashMap<>();
+    private final Map<String, Integer> packageCounts = new HashMap<>();
+    private final Map<String, Integer> nodeCounts = new HashMap<>();
+    private final Map<String, Integer> linkCounts = new HashMap<>();
+
+    /** @param analyzer used to extract and resolve facts; its blacklist applies */
+    public LiveGraph(StrutsFunctionAnalyzer analyzer) {
+        this.analyzer = analyzer;
+    }
+
+    /**
+     * Re-reads the given paths and returns what changed. A path may be a source file that
+     * was created, modified or deleted, or a directory, including one that was deleted
+     * with everything below it. For directories only files whose
+     * size or modification time differ from what the graph has seen are re-parsed, which
+     * keeps rescans after a watch overflow cheap.
+     */
+    public synchronized GraphDelta update(Collection<Path> paths) {
+        long startTime = System.currentTimeMillis();
+        Set<Path> changed = new LinkedHashSet<>();
+        for (Path path : paths) {
+            if (!Files.exists(path)) {
+                // A deleted file or directory: retract everything tracked below it
+                for (Path tracked : files.keySet()) {
+                    if (tracked.startsWith(path)) {
+                        changed.add(tracked);
+                    }
+                }
+            } else if (Files.isDirectory(path)) {
+                changed.addAll(changedFilesBelow(path));
+            } else if (path.toString().endsWith(".java")) {
+                changed.add(path);
+            }
+        }
+
+        // Reading and extraction are pure, so they run in parallel before the graph changes
+        Map<Path, FileState> updated = changed.parallelStream()
+                .map(this::readState)
+                .collect(Collectors.toMap(state -> state.path, state -> state));
+
+        Tracker tracker = new Tracker();
+        Set<String> packagesBefore = new HashSet<>(packageCounts.keySet());
+        for (Path path : changed) {
+            FileState old = files.remove(path);
+            if (old != null) {
+                retract(old, tracker);
+                count(packageCounts, old.packageName(), -1);
+            }
+            FileState state = updated.get(path);
+            if (state.facts != null) {
+                files.put(path, state);
+                count(packageCounts, state.packageName(), 1);
+            }
+        }
+
+        Set<FileState> toResolve = new LinkedHashSet<>();
+        for (Path path : changed) {
+            if (files.containsKey(path)) {
+                toResolve.add(files.get(path));
+            }
+        }
+        if (!packagesBefore.equals(packageCounts.keySet())) {
+            for (FileState state : files.values()) {
+                if (state.packageName() == null && !toResolve.contains(state)) {
+                    retract(state, tracker);
+                    toResolve.add(state);
+                }
+            }
+        }
+        Set<String> packages = packageCounts.keySet();
+        for (FileState state : toResolve) {
+            resolve(state, packages);
+            contribute(state, tracker);
+        }
+
+        GraphDelta delta = tracker.delta();
+        delta.setChangedFiles(changed.size());
+        delta.setElapsedMillis(System.currentTimeMillis() - startTime);
+        return delta;
+    }
+
+    /** The whole graph as a delta against an empty graph. */
+    public synchronized GraphDelta snapshot() {
+        GraphDelta delta = new GraphDelta();
+        delta.getAddedNodes().addAll(nodeCounts.keySet());
+        for (String link : linkCounts.keySet()) {
+            delta.getAddedLinks().add(splitLink(link));
+        }
+        delta.setChangedFiles(files.size());
+        return delta;
+    }
+
+    public synchronized int nodeCount() {
+        return nodeCounts.size();
+    }
+
+    public synchronized int linkCount() {
+        return linkCounts.size();
+    }
+
+    private List<Path> changedFilesBelow(Path directory) {
+        List<Path> result = new ArrayList<>();
+        try (Stream<Path> walk = Files.walk(directory)) {
+            walk.filter(p -> p.toString().endsWith(".java"))
+                    .filter(Files::isRegularFile)
+                    .filter(p -> !isUnchanged(p))
+                    .forEach(result::add);
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("Error scanning directory: " + directory);
+        }
+        // Tracked files that are gone, e.g. after the whole directory was deleted
+        for (Path tracked : files.keySet()) {
+            if (tracked.startsWith(directory) && !Files.exists(tracked)) {
+                result.add(tracked);
+            }
+        }
+        return result;
+    }
+
+    private boolean isUnchanged(Path path) {
+        FileState state = files.get(path);
+        if (state == null) {
+            return false;
+        }
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            return attributes.size() == state.size && attributes.lastModifiedTime().toMillis() == state.modified;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private FileState readState(Path path) {
+        FileState state = new FileState(path);
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            state.size = attributes.size();
+            state.modified = attributes.lastModifiedTime().toMillis();
+            state.facts = analyzer.extractFileFacts(new String(Files.readAllBytes(path)));
+        } catch (NoSuchFileException e) {
+            // Deleted: facts stay null
+        } catch (IOException e) {
+            System.err.println("Error analyzing file: " + path);
+        }
+        return state;
+    }
+
+    private void resolve(FileState state, Set<String> packages) {
+        Set<String> nodes = new LinkedHashSet<>();
+        Set<String> links = new LinkedHashSet<>();
+        analyzer.resolveFileFacts(state.facts, packages, nodes::add, (source, target) -> {
+            nodes.add(target);
+            links.add(source + SEPARATOR + target);
+        });
+        state.nodes = nodes;
+        state.links = links;
+    }
+
+    private void contribute(FileState state, Tracker tracker) {
+        for (String node : state.nodes) {
+            tracker.touchNode(node);
+            count(nodeCounts, node, 1);
+        }
+        for (String link : state.links) {
+            tracker.touchLink(link);
+            count(linkCounts, link, 1);
+        }
+    }
+
+    private void retract(FileState state, Tracker tracker) {
+        for (String node : state.nodes) {
+            tracker.touchNode(node);
+            count(nodeCounts, node, -1);
+        }
+        for (String link : state.links) {
+            tracker.touchLink(link);
+            count(linkCounts, link, -1);
+        }
+    }
+
+    private static void count(Map<String, Integer> counts, String key, int change) {
+        if (key != null) {
+            counts.merge(key, change, (a, b) -> a + b == 0 ? null : a + b);
+        }
+    }
+
+    private static String[] splitLink(String link) {
+        int split = link.indexOf(SEPARATOR);
+        return new String[]{link.substring(0, split), link.substring(split + 1)};
+    }
+
+    // Remembers whether each touched node or link existed before the update
+    private class Tracker {
+        private final Map<String, Boolean> nodesBefore = new HashMap<>();
+        private final Map<String, Boolean> linksBefore = new HashMap<>();
+
+        void touchNode(String node) {
+            nodesBefore.computeIfAbsent(node, nodeCounts::containsKey);
+        }
+
+        void touchLink(String link) {
+            linksBefore.computeIfAbsent(link, linkCounts::containsKey);
+        }
+
+        GraphDelta delta() {
+            GraphDelta delta = new GraphDelta();
+            nodesBefore.forEach((node, before) -> {
+                boolean after = nodeCounts.containsKey(node);
+                if (after && !before) {
+                    delta.getAddedNodes().add(node);
+                } else if (!after && before) {
+                    delta.getRemovedNodes().add(node);
+                }
+            });
+            linksBefore.forEach((link, before) -> {
+                boolean after = linkCounts.containsKey(link);
+                if (after && !before) {
+                    delta.getAddedLinks().add(splitLink(link));
+                } else if (!after && before) {
+                    delta.getRemovedLinks().add(splitLink(link));
+                }
+            });
+            return delta;
+        }
+    }
+
+    private static class FileState {
+        private final Path path;
+        private FileFacts facts;
+        private long size;
+        private long modified;
+        private Set<String> nodes = Collections.emptySet();
+        private Set<String> links = Collections.emptySet();
+
+        FileState(Path path) {
+            this.path = path;
+        }
+
+        String packageName() {
+            return facts != null ? facts.getPackageName() : null;
+        }
+    }
+}
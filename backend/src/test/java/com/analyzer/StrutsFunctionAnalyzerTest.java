@@ -0,0 +1,189 @@
+package com.analyzer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.util.*;
+
+import static com.analyzer.TestSources.writeSource;
+import static org.junit.jupiter.api.Assertions.*;
+
+class StrutsFunctionAnalyzerTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @TempDir
+    Path sourceDir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        writeSource(sourceDir, "com/shop/web/OrderAction.java",
+                "package com.shop.web;\n" +
+                "import com.shop.service.*;\n" +
+                "public class OrderAction extends BaseAction {\n" +
+                "    public String execute() {\n" +
+                "        placeOrder();\n" +
+                "        audit();\n" +
+                "        return \"success\";\n" +
+                "    }\n" +
+                "    private void audit() {\n" +
+                "        record();\n" +
+                "    }\n" +
+                "}\n");
+        writeSource(sourceDir, "com/shop/service/OrderService.java",
+                "package com.shop.service;\n" +
+                "public class OrderService {\n" +
+                "    public void placeOrder() {\n" +
+                "        persist();\n" +
+                "    }\n" +
+                "}\n");
+        writeSource(sourceDir, "legacy/LegacyAction.java",
+                "import com.shop.service.*;\n" +
+                "public class LegacyAction {\n" +
+                "    public void run() {\n" +
+                "        reconcile();\n" +
+                "    }\n" +
+                "}\n");
+    }
+
+    @Test
+    void testStreamDirectoryProducesSameGraphAsAnalyzeDirectory() throws IOException {
+        StrutsFunctionAnalyzer batch = new StrutsFunctionAnalyzer();
+        batch.analyzeDirectory(sourceDir.toString());
+        JsonNode expected = mapper.readTree(batch.generateNetworkJson());
+
+        StrutsFunctionAnalyzer streaming = new StrutsFunctionAnalyzer();
+        StringWriter out = new StringWriter();
+        streaming.streamDirectory(sourceDir.toString(), out);
+
+        Set<String> streamedNodes = new HashSet<>();
+        Set<String> streamedLinks = new HashSet<>();
+        List<String> types = new ArrayList<>();
+        for (String line : out.toString().split("\n")) {
+            JsonNode record = mapper.readTree(line);
+            String type = record.get("type").asText();
+            types.add(type);
+            if (type.equals("node")) {
+                streamedNodes.add(record.get("id").asText());
+            } else if (type.equals("link")) {
+                streamedLinks.add(record.get("source").asText() + "->" + record.get("target").asText());
+            }
+        }
+
+        assertEquals(ids(expected.get("nodes"), "id"), streamedNodes);
+        assertEquals(links(expected.get("links")), streamedLinks);
+        assertEquals("statistics", types.get(types.size() - 1));
+        assertTrue(types.contains("progress"));
+        assertTrue(types.indexOf("link") < types.lastIndexOf("progress"));
+    }
+
+    @Test
+    void testStreamDirectorySendsLateLinksAfterAllFiles() throws IOException {
+        StrutsFunctionAnalyzer streaming = new StrutsFunctionAnalyzer();
+        StringWriter out = new StringWriter();
+        streaming.streamDirectory(sourceDir.toString(), out);
+
+        String[] lines = out.toString().split("\n");
+        JsonNode statistics = mapper.readTree(lines[lines.length - 1]);
+        assertEquals(3, statistics.get("totalFiles").asInt());
+        assertEquals(1, statistics.get("lateLinks").asInt());
+
+        int lastProgress = -1;
+        int lateLink = -1;
+        for (int i = 0; i < lines.length; i++) {
+            JsonNode record = mapper.readTree(lines[i]);
+            if (record.get("type").asText().equals("progress")) {
+                lastProgress = i;
+            } else if (record.get("type").asText().equals("link")
+                    && record.get("source").asText().equals("Legacy.run")) {
+                lateLink = i;
+                assertEquals("com.shop.service.reconcile", record.get("target").asText());
+            }
+        }
+        assertTrue(lateLink > lastProgress);
+    }
+
+    @Test
+    void testLowMemoryModeProducesSameGraph() throws IOException {
+        for (int i = 0; i < 50; i++) {
+            writeSource(sourceDir, "com/shop/gen/Gen" + i + "Action.java",
+                    "package com.shop.gen;\n" +
+                    "public class Gen" + i + "Action {\n" +
+                    "    public String execute() {\n" +
+                    "        step" + i + "();\n" +
+                    "        step" + (i + 1) + "();\n" +
+                    "        return \"success\";\n" +
+                    "    }\n" +
+                    "}\n");
+        }
+        StrutsFunctionAnalyzer inMemory = new StrutsFunctionAnalyzer();
+        inMemory.analyzeDirectory(sourceDir.toString());
+        JsonNode expected = mapper.readTree(inMemory.generateNetworkJson());
+
+        StrutsFunctionAnalyzer lowMemory = new StrutsFunctionAnalyzer();
+        lowMemory.setLowMemoryMode(1024, sourceDir.resolve("spill"));
+        lowMemory.analyzeDirectory(sourceDir.toString());
+        JsonNode actual = mapper.readTree(lowMemory.generateNetworkJson());
+        lowMemory.close();
+
+        assertEquals(ids(expected.get("nodes"), "id"), ids(actual.get("nodes"), "id"));
+        assertEquals(statistics(expected.get("nodes")), statistics(actual.get("nodes")));
+        assertEquals(links(expected.get("links")), links(actual.get("links")));
+        assertEquals(expected.get("links").size(), actual.get("links").size());
+        assertTrue(lowMemory.getSpillStatistics().getRunsWritten() > 0);
+    }
+
+    @Test
+    void testAnalyzeDirectoryRejectsFileInEitherMode() throws IOException {
+        Path file = writeSource(sourceDir, "com/shop/web/OrderAction.java", "package com.shop.web;\n");
+        StrutsFunctionAnalyzer inMemory = new StrutsFunctionAnalyzer();
+        StrutsFunctionAnalyzer lowMemory = new StrutsFunctionAnalyzer();
+        lowMemory.setLowMemoryMode(1024, sourceDir.resolve("spill"));
+
+        for (StrutsFunctionAnalyzer analyzer : Arrays.asList(inMemory, lowMemory)) {
+            IOException thrown = assertThrows(IOException.class, () -> analyzer.analyzeDirectory(file.toString()));
+            assertTrue(thrown.getMessage().contains("Path is not a directory"));
+        }
+        lowMemory.close();
+    }
+
+    @Test
+    void testParseSizeRejectsMalformedSizes() {
+        assertEquals(512L * 1024 * 1024, StrutsFunctionAnalyzer.parseSize("512m"));
+        assertEquals(0, StrutsFunctionAnalyzer.parseSize("512X"));
+        assertEquals(0, StrutsFunctionAnalyzer.parseSize("abc"));
+        assertEquals(0, StrutsFunctionAnalyzer.parseSize("99999999999g"));
+    }
+
+    @Test
+    void testStreamDirectoryRejectsMissingDirectory() {
+        StrutsFunctionAnalyzer streaming = new StrutsFunctionAnalyzer();
+        IOException thrown = assertThrows(IOException.class,
+                () -> streaming.streamDirectory(sourceDir.resolve("missing").toString(), new StringWriter()));
+        assertTrue(thrown.getMessage().contains("No such directory exists"));
+    }
+
+    private static Set<String> ids(JsonNode array, String field) {
+        Set<String> result = new HashSet<>();
+        array.forEach(node -> result.add(node.get(field).asText()));
+        return result;
+    }
+
+    private static Map<String, JsonNode> statistics(JsonNode nodes) {
+        Map<String, JsonNode> result = new HashMap<>();
+        nodes.forEach(node -> result.put(node.get("id").asText(), node.get("statistics")));
+        return result;
+    }
+
+    private static Set<String> links(JsonNode array) {
+        Set<String> result = new HashSet<>();
+        array.forEach(link -> result.add(link.get("source").asText() + "->" + link.get("target").asText()));
+        return result;
+    }
+}
@@ -0,0 +1,51 @@
+package com.analyzer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Source fixtures and graph builders shared by the analyzer tests.
+ */
+public final class TestSources {
+
+    private TestSources() {
+    }
+
+    /** A Struts Action class whose execute method makes a single call. */
+    public static String action(String packageName, String name, String call) {
+        return "package " + packageName + ";\n" +
+                "public class " + name + "Action {\n" +
+                "    public String execute() {\n" +
+                "        " + call + "();\n" +
+                "        return \"success\";\n" +
+                "    }\n" +
+                "}\n";
+    }
+
+    public static Path writeSource(Path root, String relativePath, String content) throws IOException {
+        Path file = root.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes());
+        return file;
+    }
+
+    /** Call adjacency from caller/callee pairs. */
+    public static Map<String, Set<String>> adjacency(String... pairs) {
+        Map<String, Set<String>> calls = new HashMap<>();
+        for (int i = 0; i < pairs.length; i += 2) {
+            calls.computeIfAbsent(pairs[i], key -> new HashSet<>()).add(pairs[i + 1]);
+        }
+        return calls;
+    }
+
+    /** The records of a JSON array as a set, for order-insensitive comparisons. */
+    public static Set<JsonNode> records(JsonNode array) {
+        Set<JsonNode> result = new HashSet<>();
+        array.forEach(result::add);
+        return result;
+    }
+}
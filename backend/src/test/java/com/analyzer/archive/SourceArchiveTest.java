@@ -0,0 +1,87 @@
+package com.analyzer.archive;
+
+import com.analyzer.StrutsFunctionAnalyzer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static com.analyzer.TestSources.action;
+import static com.analyzer.TestSources.records;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SourceArchiveTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @TempDir
+    Path tempDir;
+
+    private final Map<String, String> sources = new LinkedHashMap<>();
+
+    SourceArchiveTest() {
+        sources.put("com/shop/web/OrderAction.java", action("com.shop.web", "Order", "placeOrder"));
+        sources.put("com/shop/web/CartAction.java", action("com.shop.web", "Cart", "addItem"));
+        sources.put("com/shop/admin/ReportAction.java", action("com.shop.admin", "Report", "render"));
+    }
+
+    @Test
+    void testArchiveWithNestedSourcesJarMatchesExtractedDirectory() throws IOException {
+        Path extracted = tempDir.resolve("extracted");
+        for (Map.Entry<String, String> source : sources.entrySet()) {
+            Path file = extracted.resolve(source.getKey());
+            Files.createDirectories(file.getParent());
+            Files.write(file, source.getValue().getBytes());
+        }
+
+        // The admin sources are only shipped as a nested -sources.jar
+        ByteArrayOutputStream nested = new ByteArrayOutputStream();
+        try (ZipOutputStream jar = new ZipOutputStream(nested)) {
+            addEntry(jar, "com/shop/admin/ReportAction.java", sources.get("com/shop/admin/ReportAction.java").getBytes());
+        }
+        Path archive = tempDir.resolve("vendor-bundle.zip");
+        try (OutputStream out = Files.newOutputStream(archive); ZipOutputStream zip = new ZipOutputStream(out)) {
+            addEntry(zip, "src/com/shop/web/OrderAction.java", sources.get("com/shop/web/OrderAction.java").getBytes());
+            addEntry(zip, "src/com/shop/web/CartAction.java", sources.get("com/shop/web/CartAction.java").getBytes());
+            addEntry(zip, "README.txt", "not a source".getBytes());
+            addEntry(zip, "lib/admin-1.0-sources.jar", nested.toByteArray());
+        }
+
+        StrutsFunctionAnalyzer fromDirectory = new StrutsFunctionAnalyzer();
+        fromDirectory.analyzeDirectory(extracted.toString());
+        StrutsFunctionAnalyzer fromArchive = new StrutsFunctionAnalyzer();
+        fromArchive.analyzeDirectory(archive.toString());
+
+        JsonNode expected = mapper.readTree(fromDirectory.generateNetworkJson());
+        JsonNode actual = mapper.readTree(fromArchive.generateNetworkJson());
+        for (String section : Arrays.asList("packages", "classes", "nodes", "links")) {
+            assertEquals(records(expected.get(section)), records(actual.get(section)), section);
+        }
+        assertEquals(3, actual.get("classes").size());
+    }
+
+    @Test
+    void testIsArchive() throws IOException {
+        Path jar = Files.createFile(tempDir.resolve("struts-app-sources.jar"));
+        Path text = Files.createFile(tempDir.resolve("notes.txt"));
+
+        assertTrue(SourceArchive.isArchive(jar));
+        assertFalse(SourceArchive.isArchive(text));
+        assertFalse(SourceArchive.isArchive(tempDir));
+    }
+
+    private static void addEntry(ZipOutputStream zip, String name, byte[] content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write(content);
+        zip.closeEntry();
+    }
+}
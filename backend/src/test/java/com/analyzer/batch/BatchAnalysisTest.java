@@ -0,0 +1,101 @@
+package com.analyzer.batch;
+
+import com.analyzer.StrutsFunctionAnalyzer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static com.analyzer.TestSources.action;
+import static com.analyzer.TestSources.writeSource;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchAnalysisTest {
+
+    @TempDir
+    Path workDir;
+
+    @Test
+    void testManifestJobsRunInOneJvm() throws Exception {
+        writeSource(workDir, "shop/com/shop/web/OrderAction.java", action("com.shop.web", "Order", "placeOrder"));
+        writeSource(workDir, "shop/com/shop/web/CartAction.java", action("com.shop.web", "Cart", "addItem"));
+        writeSource(workDir, "bank/com/bank/web/TransferAction.java", action("com.bank.web", "Transfer", "debit"));
+        Path manifest = workDir.resolve("repos.txt");
+        Files.write(manifest, Arrays.asList(
+                "# source  output",
+                "shop  out/shop.json",
+                "",
+                "bank  out/bank.json",
+                "missing  out/missing.json"));
+
+        List<BatchAnalysis.Outcome> outcomes = new BatchAnalysis(2, 0).run(BatchAnalysis.readManifest(manifest));
+
+        assertEquals(3, outcomes.size());
+        assertEquals(BatchAnalysis.Status.OK, outcomes.get(0).getStatus());
+        assertEquals(2, outcomes.get(0).getFiles());
+        assertEquals(2, outcomes.get(0).getLinks());
+        assertEquals(BatchAnalysis.Status.OK, outcomes.get(1).getStatus());
+        assertEquals(BatchAnalysis.Status.FAILED, outcomes.get(2).getStatus());
+        assertTrue(outcomes.get(2).getDetail().contains("No such directory"));
+        assertFalse(Files.exists(workDir.resolve("out/missing.json")));
+
+        // Same output as a single-repository run
+        StrutsFunctionAnalyzer single = new StrutsFunctionAnalyzer();
+        single.analyzeDirectory(workDir.resolve("shop").toString());
+        assertEquals(single.generateNetworkJson(), new String(Files.readAllBytes(workDir.resolve("out/shop.json"))));
+
+        ByteArrayOutputStream table = new ByteArrayOutputStream();
+        BatchAnalysis.printSummary(outcomes, 10, new PrintStream(table));
+        assertTrue(table.toString().contains("1 failed"));
+    }
+
+    @Test
+    void testSlowJobTimesOut() throws Exception {
+        for (int i = 0; i < 2000; i++) {
+            writeSource(workDir, "large/com/large/web/Page" + i + "Action.java", action("com.large.web", "Page" + i, "render"));
+        }
+        Path output = workDir.resolve("large.json");
+        BatchAnalysis.Job job = new BatchAnalysis.Job(workDir.resolve("large"), output, null);
+
+        List<BatchAnalysis.Outcome> outcomes = new BatchAnalysis(1, 1).run(Collections.singletonList(job));
+
+        assertEquals(BatchAnalysis.Status.TIMED_OUT, outcomes.get(0).getStatus());
+        assertFalse(Files.exists(output));
+    }
+
+    @Test
+    void testSlowArchiveStopsAtTimeout() throws Exception {
+        Path archive = workDir.resolve("large.zip");
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(archive))) {
+            for (int i = 0; i < 2000; i++) {
+                zip.putNextEntry(new ZipEntry("com/large/web/Page" + i + "Action.java"));
+                zip.write(action("com.large.web", "Page" + i, "render").getBytes());
+                zip.closeEntry();
+            }
+        }
+        Path output = workDir.resolve("large.json");
+        BatchAnalysis.Job job = new BatchAnalysis.Job(archive, output, null);
+
+        List<BatchAnalysis.Outcome> outcomes = new BatchAnalysis(1, 1).run(Collections.singletonList(job));
+
+        assertEquals(BatchAnalysis.Status.TIMED_OUT, outcomes.get(0).getStatus());
+        assertTrue(outcomes.get(0).getFiles() < 2000);
+        assertFalse(Files.exists(output));
+    }
+
+    @Test
+    void testInvalidManifestLineIsRejected() throws IOException {
+        Path manifest = workDir.resolve("repos.txt");
+        Files.write(manifest, Collections.singletonList("only-a-source"));
+
+        IOException thrown = assertThrows(IOException.class, () -> BatchAnalysis.readManifest(manifest));
+        assertTrue(thrown.getMessage().contains("line 1"));
+    }
+}
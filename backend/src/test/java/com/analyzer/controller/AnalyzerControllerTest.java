@@ -3,6 +3,7 @@ package com.analyzer.controller;
 import com.analyzer.service.AnalyzerService;
 import com.analyzer.service.BlacklistService;
 import com.analyzer.dto.BlacklistRequest;
+import com.analyzer.result.AnalysisResult;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -10,7 +11,9 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.ResponseEntity;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.util.zip.GZIPInputStream;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -109,4 +112,70 @@ class AnalyzerControllerTest {
         // Verify
         verify(blacklistService).getBlacklist();
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetAnalysis_ServesStoredGzip() throws IOException {
+        // Arrange
+        String testPath = "/test/directory";
+        AnalysisResult result = AnalysisResult.of(testPath, "{\"test\":\"json\"}");
+        when(analyzerService.findResult(testPath)).thenReturn(result);
+
+        // Act
+        ResponseEntity<byte[]> response = analyzerController.getAnalysis(testPath, null, "br, gzip;q=0.8");
+
+        // Assert
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals("gzip", response.getHeaders().getFirst("Content-Encoding"));
+        assertEquals(result.getGzipEtag(), response.getHeaders().getETag());
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(response.getBody()))) {
+            assertEquals("{\"test\":\"json\"}", new String(in.readAllBytes()));
+        }
+    }
+
+    @Test
+    void testGetAnalysis_NothingStored() {
+        // Arrange
+        String testPath = "/test/directory";
+        when(analyzerService.findResult(testPath)).thenReturn(null);
+
+        // Act
+        ResponseEntity<byte[]> response = analyzerController.getAnalysis(testPath, null, "gzip");
+
+        // Assert
+        assertEquals(404, response.getStatusCode().value());
+        verify(analyzerService).findResult(testPath);
+        verifyNoMoreInteractions(analyzerService);
+    }
+
+    @Test
+    void testGetAnalysis_NotModified() {
+        // Arrange
+        String testPath = "/test/directory";
+        AnalysisResult result = AnalysisResult.of(testPath, "{\"test\":\"json\"}");
+        when(analyzerService.findResult(testPath)).thenReturn(result);
+
+        // Act
+        ResponseEntity<byte[]> response = analyzerController.getAnalysis(testPath, result.getEtag(), "gzip;q=0");
+
+        // Assert
+        assertEquals(304, response.getStatusCode().value());
+        assertNull(response.getBody());
+        assertEquals(result.getEtag(), response.getHeaders().getETag());
+    }
+
+    @Test
+    void testGetAnalysis_OtherRepresentationsEtagDoesNotMatch() {
+        // Arrange
+        String testPath = "/test/directory";
+        AnalysisResult result = AnalysisResult.of(testPath, "{\"test\":\"json\"}");
+        when(analyzerService.findResult(testPath)).thenReturn(result);
+
+        // Act
+        ResponseEntity<byte[]> response = analyzerController.getAnalysis(testPath, result.getGzipEtag(), null);
+
+        // Assert
+        assertEquals(200, response.getStatusCode().value());
+        assertNull(response.getHeaders().getFirst("Content-Encoding"));
+        assertEquals("{\"test\":\"json\"}", new String(response.getBody()));
+    }
+}
@@ -0,0 +1,106 @@
+package com.analyzer.diff;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GraphDiffTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private static final String BEFORE = "{\n" +
+            "  \"packages\": [{\"name\": \"com.shop\", \"dependencies\": []}],\n" +
+            "  \"nodes\": [\n" +
+            "    {\"id\": \"com.shop.web.Order.execute\", \"packageName\": \"com.shop.web\", \"statistics\": {\"calls\": []}},\n" +
+            "    {\"id\": \"com.shop.web.Order.audit\", \"packageName\": \"com.shop.web\"},\n" +
+            "    {\"id\": \"com.shop.legacy.Fax.send\", \"packageName\": \"com.shop.legacy\"}\n" +
+            "  ],\n" +
+            "  \"links\": [\n" +
+            "    {\"source\": \"com.shop.web.Order.execute\", \"target\": \"com.shop.web.Order.audit\"},\n" +
+            "    {\"source\": \"com.shop.web.Order.execute\", \"target\": \"com.shop.legacy.Fax.send\"}\n" +
+            "  ]\n" +
+            "}";
+
+    private static final String AFTER = "{\n" +
+            "  \"nodes\": [\n" +
+            "    {\"id\": \"com.shop.web.Order.audit\", \"packageName\": \"com.shop.web\"},\n" +
+            "    {\"id\": \"com.shop.web.Order.execute\", \"packageName\": \"com.shop.web\"},\n" +
+            "    {\"id\": \"com.shop.mail.Mailer.send\", \"packageName\": \"com.shop.mail\"}\n" +
+            "  ],\n" +
+            "  \"links\": [\n" +
+            "    {\"source\": \"com.shop.web.Order.execute\", \"target\": \"com.shop.web.Order.audit\"},\n" +
+            "    {\"source\": \"com.shop.web.Order.execute\", \"target\": \"com.shop.mail.Mailer.send\"},\n" +
+            "    {\"source\": \"com.shop.web.Order.audit\", \"target\": \"com.shop.mail.Mailer.send\"},\n" +
+            "    {\"source\": \"com.shop.web.Order.audit\", \"target\": \"com.shop.mail.Mailer.send\"}\n" +
+            "  ]\n" +
+            "}";
+
+    @Test
+    void testDiffReportsAddedAndRemovedElements() throws IOException {
+        StringWriter out = new StringWriter();
+        GraphDiff.Summary summary = new GraphDiff(snapshot(BEFORE), snapshot(AFTER)).write(out);
+
+        assertEquals(1, summary.getAddedNodes());
+        assertEquals(1, summary.getRemovedNodes());
+        assertEquals(2, summary.getAddedLinks());
+        assertEquals(1, summary.getRemovedLinks());
+        assertEquals(1, summary.getAddedPackageDependencies());
+        assertEquals(1, summary.getRemovedPackageDependencies());
+
+        Set<String> records = new HashSet<>();
+        for (String line : out.toString().split("\n")) {
+            JsonNode record = mapper.readTree(line);
+            if (record.has("change")) {
+                records.add(record.get("type").asText() + " " + record.get("change").asText() + " "
+                        + (record.has("id") ? record.get("id").asText()
+                        : record.get("source").asText() + "->" + record.get("target").asText()));
+            }
+        }
+        assertTrue(records.contains("node added com.shop.mail.Mailer.send"));
+        assertTrue(records.contains("node removed com.shop.legacy.Fax.send"));
+        assertTrue(records.contains("link added com.shop.web.Order.audit->com.shop.mail.Mailer.send"));
+        assertTrue(records.contains("link removed com.shop.web.Order.execute->com.shop.legacy.Fax.send"));
+        assertTrue(records.contains("packageDependency added com.shop.web->com.shop.mail"));
+        assertTrue(records.contains("packageDependency removed com.shop.web->com.shop.legacy"));
+    }
+
+    @Test
+    void testDiffReportsFanInAndFanOutChanges() throws IOException {
+        StringWriter out = new StringWriter();
+        GraphDiff.Summary summary = new GraphDiff(snapshot(BEFORE), snapshot(AFTER)).write(out);
+
+        assertEquals(1, summary.getDegreeChanges());
+        JsonNode degree = null;
+        for (String line : out.toString().split("\n")) {
+            JsonNode record = mapper.readTree(line);
+            if (record.get("type").asText().equals("degree")) {
+                degree = record;
+            }
+        }
+        assertNotNull(degree);
+        assertEquals("com.shop.web.Order.audit", degree.get("id").asText());
+        assertEquals(0, degree.get("fanOutBefore").asInt());
+        assertEquals(1, degree.get("fanOutAfter").asInt());
+    }
+
+    @Test
+    void testIdenticalSnapshotsProduceOnlySummary() throws IOException {
+        StringWriter out = new StringWriter();
+        new GraphDiff(snapshot(BEFORE), snapshot(BEFORE)).write(out);
+
+        String[] lines = out.toString().split("\n");
+        assertEquals(1, lines.length);
+        assertEquals("summary", mapper.readTree(lines[0]).get("type").asText());
+    }
+
+    private static GraphSnapshot snapshot(String json) throws IOException {
+        return GraphSnapshot.read(new ByteArrayInputStream(json.getBytes()));
+    }
+}
@@ -0,0 +1,110 @@
+package com.analyzer.git;
+
+import com.analyzer.StrutsFunctionAnalyzer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static com.analyzer.TestSources.action;
+import static com.analyzer.TestSources.records;
+import static com.analyzer.TestSources.writeSource;
+import static org.junit.jupiter.api.Assertions.*;
+
+class GitIncrementalAnalysisTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @TempDir
+    Path repoDir;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        git("init", "-q");
+        writeSource(repoDir, "src/com/shop/web/OrderAction.java", action("com.shop.web", "Order", "placeOrder"));
+        writeSource(repoDir, "src/com/shop/web/CartAction.java", action("com.shop.web", "Cart", "addItem"));
+        writeSource(repoDir, "src/com/shop/admin/ReportAction.java", action("com.shop.admin", "Report", "render"));
+        git("add", ".");
+        git("-c", "user.name=test", "-c", "user.email=test@example.com", "commit", "-q", "-m", "base");
+    }
+
+    @Test
+    void testIncrementalRunMatchesFullScan() throws Exception {
+        writeSource(repoDir, "src/com/shop/web/OrderAction.java", action("com.shop.web", "Order", "cancelOrder"));
+        writeSource(repoDir, "src/com/shop/billing/InvoiceAction.java", action("com.shop.billing", "Invoice", "bill"));
+        Files.delete(repoDir.resolve("src/com/shop/admin/ReportAction.java"));
+
+        StrutsFunctionAnalyzer full = new StrutsFunctionAnalyzer();
+        full.analyzeDirectory(repoDir.toString());
+
+        StrutsFunctionAnalyzer incremental = new StrutsFunctionAnalyzer();
+        GitIncrementalAnalysis.Summary summary =
+                new GitIncrementalAnalysis(repoDir, incremental).analyze("HEAD");
+
+        assertEquals(1, summary.getAdded());
+        assertEquals(1, summary.getModified());
+        assertEquals(1, summary.getDeleted());
+        assertEquals(3, summary.getTotalFiles());
+        assertGraphsEqual(full.generateNetworkJson(), incremental.generateNetworkJson());
+    }
+
+    @Test
+    void testBaselineIsReusedForTheSameRevision() throws Exception {
+        GitIncrementalAnalysis.Summary first =
+                new GitIncrementalAnalysis(repoDir, new StrutsFunctionAnalyzer()).analyze("HEAD");
+        writeSource(repoDir, "src/com/shop/web/CartAction.java", action("com.shop.web", "Cart", "removeItem"));
+
+        StrutsFunctionAnalyzer analyzer = new StrutsFunctionAnalyzer();
+        GitIncrementalAnalysis.Summary second = new GitIncrementalAnalysis(repoDir, analyzer).analyze("HEAD");
+
+        assertFalse(first.isBaselineCached());
+        assertTrue(second.isBaselineCached());
+        assertEquals(1, second.getModified());
+        assertTrue(analyzer.generateNetworkJson().contains("com.shop.web.removeItem"));
+    }
+
+    @Test
+    void testSubdirectoriesKeepSeparateBaselines() throws Exception {
+        StrutsFunctionAnalyzer web = new StrutsFunctionAnalyzer();
+        GitIncrementalAnalysis.Summary first =
+                new GitIncrementalAnalysis(repoDir.resolve("src/com/shop/web"), web).analyze("HEAD");
+        StrutsFunctionAnalyzer admin = new StrutsFunctionAnalyzer();
+        GitIncrementalAnalysis.Summary second =
+                new GitIncrementalAnalysis(repoDir.resolve("src/com/shop/admin"), admin).analyze("HEAD");
+
+        assertFalse(first.isBaselineCached());
+        assertFalse(second.isBaselineCached());
+        assertEquals(2, first.getTotalFiles());
+        assertEquals(1, second.getTotalFiles());
+        assertFalse(admin.generateNetworkJson().contains("com.shop.web.placeOrder"));
+    }
+
+    @Test
+    void testUnknownRevisionIsRejected() {
+        IOException thrown = assertThrows(IOException.class,
+                () -> new GitIncrementalAnalysis(repoDir, new StrutsFunctionAnalyzer()).analyze("no-such-branch"));
+        assertTrue(thrown.getMessage().contains("Unknown base revision"));
+    }
+
+    private void assertGraphsEqual(String expectedJson, String actualJson) throws IOException {
+        JsonNode expected = mapper.readTree(expectedJson);
+        JsonNode actual = mapper.readTree(actualJson);
+        for (String section : Arrays.asList("packages", "classes", "nodes", "links")) {
+            assertEquals(records(expected.get(section)), records(actual.get(section)), section);
+        }
+    }
+
+    private void git(String... args) throws Exception {
+        List<String> command = new ArrayList<>();
+        command.add("git");
+        command.addAll(Arrays.asList(args));
+        Process process = new ProcessBuilder(command).directory(repoDir.toFile()).inheritIO().start();
+        assertEquals(0, process.waitFor());
+    }
+}
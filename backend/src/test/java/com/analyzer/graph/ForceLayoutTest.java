@@ -0,0 +1,83 @@
+package com.analyzer.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ForceLayoutTest {
+
+    @Test
+    void testCalledMethodsEndUpCloserThanUnrelatedOnes() {
+        // Two separate chains of ten methods each
+        Map<String, Set<String>> calls = new HashMap<>();
+        for (int chain = 0; chain < 2; chain++) {
+            for (int i = 0; i < 9; i++) {
+                calls.computeIfAbsent(id(chain, i), key -> new HashSet<>()).add(id(chain, i + 1));
+            }
+        }
+        CallGraph graph = CallGraph.build(calls);
+
+        ForceLayout.Layout layout = ForceLayout.compute(graph, null);
+
+        assertEquals(20, layout.size());
+        assertEquals(ForceLayout.ITERATIONS, layout.getIterations());
+        assertFalse(layout.isSeeded());
+        double linked = 0;
+        double unrelated = 0;
+        for (int i = 0; i < 9; i++) {
+            linked += distance(layout, id(0, i), id(0, i + 1));
+            unrelated += distance(layout, id(0, i), id(1, 9 - i));
+        }
+        assertTrue(linked < unrelated, "linked " + linked + " unrelated " + unrelated);
+        for (int i = 0; i < layout.size(); i++) {
+            assertTrue(Double.isFinite(layout.getX(i)) && Double.isFinite(layout.getY(i)));
+        }
+    }
+
+    @Test
+    void testSmallChangeRefinesPreviousLayout() {
+        Map<String, Set<String>> calls = new HashMap<>();
+        for (int i = 0; i < 199; i++) {
+            calls.computeIfAbsent(id(0, i % 20), key -> new HashSet<>()).add(id(1, i));
+        }
+        ForceLayout.Layout before = ForceLayout.compute(CallGraph.build(calls), null);
+
+        calls.get(id(0, 3)).add("com.shop.web.Added.method");
+        ForceLayout.Layout after = ForceLayout.compute(CallGraph.build(calls), before);
+
+        assertTrue(after.isSeeded());
+        assertEquals(ForceLayout.SEEDED_ITERATIONS, after.getIterations());
+        assertEquals(before.size() + 1, after.size());
+        // The existing picture only shifts a little compared with its overall extent
+        double moved = 0;
+        double extent = 0;
+        for (int i = 0; i < before.size(); i++) {
+            int j = after.indexOf(before.getId(i));
+            moved += Math.hypot(after.getX(j) - before.getX(i), after.getY(j) - before.getY(i));
+            extent = Math.max(extent, Math.hypot(before.getX(i), before.getY(i)));
+        }
+        assertTrue(moved / before.size() < extent / 4, "moved " + moved / before.size() + " extent " + extent);
+    }
+
+    @Test
+    void testJsonListsEveryNode() {
+        ForceLayout.Layout layout = ForceLayout.compute(CallGraph.build(
+                Collections.singletonMap("com.shop.web.Order.execute", Collections.singleton("com.shop.web.audit"))), null);
+
+        String json = layout.toJson();
+        assertTrue(json.contains("\"id\":\"com.shop.web.Order.execute\""));
+        assertTrue(json.contains("\"id\":\"com.shop.web.audit\""));
+    }
+
+    private static String id(int chain, int i) {
+        return "com.shop.chain" + chain + ".Step.m" + i;
+    }
+
+    private static double distance(ForceLayout.Layout layout, String a, String b) {
+        int i = layout.indexOf(a);
+        int j = layout.indexOf(b);
+        return Math.hypot(layout.getX(i) - layout.getX(j), layout.getY(i) - layout.getY(j));
+    }
+}
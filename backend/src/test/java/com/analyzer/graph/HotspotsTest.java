@@ -0,0 +1,67 @@
+package com.analyzer.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static com.analyzer.TestSources.adjacency;
+import static org.junit.jupiter.api.Assertions.*;
+
+class HotspotsTest {
+
+    // a -> b -> d, a -> c -> d, d -> e: d is on every path to e
+    private final CallGraph graph = CallGraph.build(adjacency(
+            "com.shop.web.Order.a", "com.shop.web.Order.b",
+            "com.shop.web.Order.a", "com.shop.web.Cart.c",
+            "com.shop.web.Order.b", "com.shop.util.Log.d",
+            "com.shop.web.Cart.c", "com.shop.util.Log.d",
+            "com.shop.util.Log.d", "com.shop.util.Log.e"));
+
+    @Test
+    void testCallGraphKeepsBothDirections() {
+        int d = graph.indexOf("com.shop.util.Log.d");
+        assertEquals(5, graph.nodeCount());
+        assertEquals(5, graph.edgeCount());
+        assertEquals(2, graph.fanIn(d));
+        assertEquals(1, graph.fanOut(d));
+        assertEquals("com.shop.util.Log.e", graph.id(graph.target(d, 0)));
+        assertEquals("com.shop.util.Log", graph.className(graph.classOf(d)));
+        assertEquals("com.shop.util", graph.packageName(graph.packageOf(d)));
+        assertFalse(graph.isDeclared(graph.indexOf("com.shop.util.Log.e")));
+    }
+
+    @Test
+    void testTopMethodsAreBoundedAndOrdered() {
+        Hotspots hotspots = new Hotspots(graph);
+
+        List<Hotspots.Entry> fanIn = hotspots.topMethods("fanIn", 2);
+        assertEquals(2, fanIn.size());
+        assertEquals("com.shop.util.Log.d", fanIn.get(0).getName());
+        assertEquals(2, fanIn.get(0).getScore());
+        // Ties on score are ordered by name
+        assertEquals("com.shop.util.Log.e", fanIn.get(1).getName());
+
+        assertEquals("com.shop.web.Order.a", hotspots.topMethods("fanOut", 1).get(0).getName());
+        assertEquals("com.shop.util.Log.d", hotspots.topMethods("betweenness", 1).get(0).getName());
+    }
+
+    @Test
+    void testTopClassesAndPackages() {
+        Hotspots hotspots = new Hotspots(graph);
+
+        List<Hotspots.Entry> classes = hotspots.topClasses("methods", 10);
+        assertEquals(3, classes.size());
+        assertEquals("com.shop.web.Order", classes.get(0).getName());
+        assertEquals(2, classes.get(0).getScore());
+
+        List<Hotspots.Entry> packages = hotspots.topPackages("calls", 1);
+        assertEquals("com.shop.web", packages.get(0).getName());
+        assertEquals(6, packages.get(0).getScore());
+        assertEquals("[{\"name\":\"com.shop.web\",\"value\":6}]", Hotspots.toJson(packages));
+    }
+
+    @Test
+    void testUnknownMetricIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new Hotspots(graph).topMethods("pageRank", 5));
+    }
+}
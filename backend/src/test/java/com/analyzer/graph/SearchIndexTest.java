@@ -0,0 +1,66 @@
+package com.analyzer.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static com.analyzer.TestSources.adjacency;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchIndexTest {
+
+    private final SearchIndex index = SearchIndex.build(CallGraph.build(adjacency(
+            "com.bank.web.Account.getUserBalance", "com.bank.service.Ledger.getBalance",
+            "com.bank.web.Account.execute", "com.bank.web.Account.getUserBalance",
+            "com.bank.web.Account.execute", "com.bank.service.Ledger.get",
+            "com.bank.web.Transfer.execute", "com.bank.service.Ledger.get",
+            "com.bank.web.Transfer.execute", "com.bank.service.UserBalanceCache.refresh")));
+
+    @Test
+    void testPrefixMatchesRankExactFirst() {
+        SearchIndex.Page page = index.search("get", SearchIndex.Kind.METHOD, 0, 10);
+
+        assertEquals(3, page.getTotal());
+        assertEquals(Arrays.asList(
+                "com.bank.service.Ledger.get",
+                "com.bank.service.Ledger.getBalance",
+                "com.bank.web.Account.getUserBalance"), page.getNames());
+    }
+
+    @Test
+    void testCamelHumpQuery() {
+        SearchIndex.Page page = index.search("gUB", null, 0, 10);
+
+        assertEquals(Collections.singletonList("com.bank.web.Account.getUserBalance"), page.getNames());
+        assertTrue(page.toJson().contains("\"match\":\"hump\""));
+    }
+
+    @Test
+    void testSubstringQueryCoversAllKinds() {
+        SearchIndex.Page page = index.search("balance", null, 0, 10);
+
+        // All three are substring matches, so shorter names come first
+        assertEquals(Arrays.asList(
+                "com.bank.service.Ledger.getBalance",
+                "com.bank.web.Account.getUserBalance",
+                "com.bank.service.UserBalanceCache"), page.getNames());
+
+        assertEquals(Collections.singletonList("com.bank.service"),
+                index.search("k.serv", SearchIndex.Kind.PACKAGE, 0, 10).getNames());
+    }
+
+    @Test
+    void testPagesAreDisjoint() {
+        SearchIndex.Page first = index.search("e", null, 0, 2);
+        SearchIndex.Page second = index.search("e", null, 1, 2);
+
+        assertEquals(first.getTotal(), second.getTotal());
+        assertEquals(2, first.getNames().size());
+        assertTrue(Collections.disjoint(first.getNames(), second.getNames()));
+        assertEquals(0, index.search("zzz", null, 0, 10).getTotal());
+
+        SearchIndex.Page beyond = index.search("e", null, Integer.MAX_VALUE, 200);
+        assertEquals(first.getTotal(), beyond.getTotal());
+        assertTrue(beyond.getNames().isEmpty());
+    }
+}
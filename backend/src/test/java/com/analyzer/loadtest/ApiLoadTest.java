@@ -0,0 +1,317 @@
+package com.analyzer.loadtest;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Drives the REST API with concurrent clients running a mixed workload against generated
+ * Struts trees, and reports latency percentiles, throughput, heap high-water mark and error
+ * rate per operation. Excluded from the default build; run it with {@code mvn test
+ * -Ploadtest}. Results are written as JSON to {@code target/loadtest/} and appended to a
+ * CSV history there, so runs can be compared. All settings are system properties:
+ * {@code loadtest.clients}, {@code loadtest.seconds}, {@code loadtest.trees},
+ * {@code loadtest.files} and {@code loadtest.maxErrorRate}, which fails the run above 1%
+ * by default. The clients run in the server's JVM, so the heap figures include them.
+ */
+@Tag("loadtest")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ApiLoadTest {
+    private static final int CLIENTS = Integer.getInteger("loadtest.clients", 16);
+    private static final int SECONDS = Integer.getInteger("loadtest.seconds", 30);
+    private static final int TREES = Integer.getInteger("loadtest.trees", 3);
+    private static final int FILES = Integer.getInteger("loadtest.files", 500);
+    private static final double MAX_ERROR_RATE = Double.parseDouble(System.getProperty("loadtest.maxErrorRate", "0.01"));
+
+    // Operation mix: name and weight out of 100
+    private static final String[] OPERATIONS = {"analyze", "getResult", "hotspots", "search", "getBlacklist", "updateBlacklist"};
+    private static final int[] WEIGHTS = {10, 30, 15, 25, 15, 5};
+    // Operations served from the stored result only
+    private static final Set<String> READS = Set.of("getResult", "hotspots", "search");
+
+    @LocalServerPort
+    private int port;
+
+    @TempDir
+    Path treesDir;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    @Test
+    void testMixedWorkload() throws Exception {
+        List<String> trees = new ArrayList<>();
+        for (int i = 0; i < TREES; i++) {
+            Path tree = treesDir.resolve("tree" + i);
+            new StrutsTreeGenerator(i).generate(tree, FILES);
+            trees.add(tree.toString());
+        }
+        // Warm up: every tree has a stored result before measuring starts
+        for (String tree : trees) {
+            assertEquals(200, send(request("/api/analyze?path=" + encode(tree)).POST(HttpRequest.BodyPublishers.noBody())));
+        }
+
+        Map<String, Recorder> recorders = new LinkedHashMap<>();
+        for (String operation : OPERATIONS) {
+            recorders.put(operation, new Recorder());
+        }
+        HeapSampler heap = new HeapSampler();
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        long startNanos = System.nanoTime();
+        long deadline = startNanos + TimeUnit.SECONDS.toNanos(SECONDS);
+        heap.start();
+        List<Future<?>> running = new ArrayList<>();
+        for (int c = 0; c < CLIENTS; c++) {
+            Random random = new Random(c);
+            running.add(clients.submit(() -> {
+                while (System.nanoTime() < deadline) {
+                    String operation = pick(random);
+                    String tree = trees.get(random.nextInt(trees.size()));
+                    long begin = System.nanoTime();
+                    boolean ok;
+                    try {
+                        int status = send(requestFor(operation, tree, random));
+                        // A read after a blacklist change finds no stored result until it is analyzed again
+                        ok = status == 200 || status == 304 || (status == 404 && READS.contains(operation));
+                    } catch (IOException e) {
+                        ok = false;
+                    }
+                    recorders.get(operation).record(System.nanoTime() - begin, ok);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : running) {
+            future.get();
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        heap.stop();
+        clients.shutdown();
+
+        String report = report(recorders, elapsedNanos, heap);
+        System.out.println(report);
+        save(recorders, elapsedNanos, heap);
+
+        Recorder total = Recorder.merge(recorders.values());
+        assertTrue(total.count() > 0);
+        assertTrue(total.errorRate() <= MAX_ERROR_RATE, "Error rate " + total.errorRate());
+    }
+
+    private HttpRequest.Builder requestFor(String operation, String tree, Random random) {
+        String path = encode(tree);
+        switch (operation) {
+            case "analyze":
+                return request("/api/analyze?path=" + path).POST(HttpRequest.BodyPublishers.noBody());
+            case "getResult":
+                return request("/api/analyze?path=" + path).header("Accept-Encoding", "gzip").GET();
+            case "hotspots":
+                return request("/api/hotspots/methods?path=" + path + "&by=fanIn&k=20").GET();
+            case "search":
+                String query = new String[]{"load", "sOr", "ledger", "Invoice1", "audit"}[random.nextInt(5)];
+                return request("/api/search?path=" + path + "&q=" + encode(query)).GET();
+            case "getBlacklist":
+                return request("/api/blacklist").GET();
+            default:
+                String body = "{\"methodNames\":[\"audit" + random.nextInt(6) + "\"]}";
+                return request("/api/blacklist")
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body));
+        }
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).timeout(Duration.ofSeconds(120));
+    }
+
+    private int send(HttpRequest.Builder request) throws IOException {
+        try {
+            return client.send(request.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+    }
+
+    private static String pick(Random random) {
+        int roll = random.nextInt(100);
+        for (int i = 0; i < OPERATIONS.length; i++) {
+            roll -= WEIGHTS[i];
+            if (roll < 0) {
+                return OPERATIONS[i];
+            }
+        }
+        return OPERATIONS[OPERATIONS.length - 1];
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static String report(Map<String, Recorder> recorders, long elapsedNanos, HeapSampler heap) {
+        double seconds = elapsedNanos / 1e9;
+        StringBuilder table = new StringBuilder();
+        table.append(String.format("Load test: %d clients, %d s, %d trees of %d files%n", CLIENTS, SECONDS, TREES, FILES));
+        String format = "%-16s %8s %10s %9s %9s %9s %8s%n";
+        table.append(String.format(format, "Operation", "Requests", "Req/s", "p50 ms", "p95 ms", "p99 ms", "Errors"));
+        Map<String, Recorder> rows = new LinkedHashMap<>(recorders);
+        rows.put("total", Recorder.merge(recorders.values()));
+        rows.forEach((operation, recorder) -> table.append(String.format(Locale.ROOT, format, operation,
+                recorder.count(), String.format(Locale.ROOT, "%.1f", recorder.count() / seconds),
+                millis(recorder.percentile(50)), millis(recorder.percentile(95)), millis(recorder.percentile(99)),
+                String.format(Locale.ROOT, "%.2f%%", recorder.errorRate() * 100))));
+        table.append(String.format("Heap high-water mark: %d MB (sampled), %d MB (pool peaks), including the in-JVM clients%n",
+                heap.sampledMax() >> 20, heap.poolPeaks() >> 20));
+        return table.toString();
+    }
+
+    private static void save(Map<String, Recorder> recorders, long elapsedNanos, HeapSampler heap) throws IOException {
+        Path directory = Paths.get(System.getProperty("loadtest.output", "target/loadtest"));
+        Files.createDirectories(directory);
+        String runId = Instant.now().toString().replace(":", "-");
+        double seconds = elapsedNanos / 1e9;
+
+        StringJoiner operations = new StringJoiner(",", "[", "]");
+        StringBuilder csv = new StringBuilder();
+        Map<String, Recorder> rows = new LinkedHashMap<>(recorders);
+        rows.put("total", Recorder.merge(recorders.values()));
+        for (Map.Entry<String, Recorder> row : rows.entrySet()) {
+            Recorder recorder = row.getValue();
+            operations.add(String.format(Locale.ROOT,
+                    "{\"operation\":\"%s\",\"requests\":%d,\"throughput\":%.2f,\"p50Ms\":%s,\"p95Ms\":%s,\"p99Ms\":%s,\"errorRate\":%.5f}",
+                    row.getKey(), recorder.count(), recorder.count() / seconds, millis(recorder.percentile(50)),
+                    millis(recorder.percentile(95)), millis(recorder.percentile(99)), recorder.errorRate()));
+            csv.append(String.format(Locale.ROOT, "%s,%d,%d,%d,%d,%s,%d,%.2f,%s,%s,%s,%.5f,%d%n",
+                    runId, CLIENTS, SECONDS, TREES, FILES, row.getKey(), recorder.count(), recorder.count() / seconds,
+                    millis(recorder.percentile(50)), millis(recorder.percentile(95)), millis(recorder.percentile(99)),
+                    recorder.errorRate(), heap.sampledMax() >> 20));
+        }
+        String json = "{\"run\":\"" + runId + "\"" +
+                ",\"clients\":" + CLIENTS + ",\"seconds\":" + SECONDS + ",\"trees\":" + TREES + ",\"files\":" + FILES +
+                ",\"heapHighWaterBytes\":" + heap.sampledMax() + ",\"heapPoolPeakBytes\":" + heap.poolPeaks() +
+                ",\"operations\":" + operations + "}\n";
+        Files.write(directory.resolve("loadtest-" + runId + ".json"), json.getBytes(StandardCharsets.UTF_8));
+
+        Path history = directory.resolve("history.csv");
+        if (!Files.exists(history)) {
+            Files.write(history, "run,clients,seconds,trees,files,operation,requests,throughput,p50Ms,p95Ms,p99Ms,errorRate,heapMb\n"
+                    .getBytes(StandardCharsets.UTF_8));
+        }
+        Files.write(history, csv.toString().getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        System.out.println("Load test results written to " + directory.toAbsolutePath());
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.2f", nanos / 1e6);
+    }
+
+    // Latencies of one operation; sorted once when percentiles are read
+    private static class Recorder {
+        private long[] latencies = new long[1024];
+        private int count;
+        private int errors;
+        private boolean sorted;
+
+        synchronized void record(long nanos, boolean ok) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+            if (!ok) {
+                errors++;
+            }
+            sorted = false;
+        }
+
+        synchronized int count() {
+            return count;
+        }
+
+        synchronized double errorRate() {
+            return count == 0 ? 0 : (double) errors / count;
+        }
+
+        synchronized long percentile(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            if (!sorted) {
+                Arrays.sort(latencies, 0, count);
+                sorted = true;
+            }
+            int rank = (int) Math.ceil(percentile / 100 * count) - 1;
+            return latencies[Math.max(0, Math.min(count - 1, rank))];
+        }
+
+        static Recorder merge(Collection<Recorder> recorders) {
+            Recorder total = new Recorder();
+            for (Recorder recorder : recorders) {
+                synchronized (recorder) {
+                    for (int i = 0; i < recorder.count; i++) {
+                        total.record(recorder.latencies[i], true);
+                    }
+                    total.errors += recorder.errors;
+                }
+            }
+            return total;
+        }
+    }
+
+    // The server and the clients share this JVM, so the memory pools report both
+    private static class HeapSampler {
+        private final ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        private volatile long sampledMax;
+
+        void start() {
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (pool.getType() == MemoryType.HEAP) {
+                    pool.resetPeakUsage();
+                }
+            }
+            sampler.scheduleAtFixedRate(() -> sampledMax = Math.max(sampledMax,
+                    ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed()), 0, 50, TimeUnit.MILLISECONDS);
+        }
+
+        void stop() {
+            sampler.shutdownNow();
+        }
+
+        long sampledMax() {
+            return sampledMax;
+        }
+
+        // Upper bound: the pools do not necessarily peak at the same moment
+        long poolPeaks() {
+            long peaks = 0;
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (pool.getType() == MemoryType.HEAP) {
+                    peaks += pool.getPeakUsage().getUsed();
+                }
+            }
+            return peaks;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.analyzer.loadtest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Writes a synthetic Struts source tree: action classes spread over packages, each calling
+ * a few methods of service classes in other packages, so analysis has realistic package
+ * resolution and cross-package links to do.
+ */
+class StrutsTreeGenerator {
+    private static final String[] VERBS = {"load", "save", "find", "update", "validate", "render", "audit", "price"};
+    private static final String[] NOUNS = {"Order", "Cart", "Account", "Invoice", "Report", "Session", "Ledger", "User"};
+
+    private final Random random;
+
+    StrutsTreeGenerator(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /** Writes {@code files} classes under {@code root}, half actions and half services. */
+    void generate(Path root, int files) throws IOException {
+        int packages = Math.max(1, files / 25);
+        for (int i = 0; i < files; i++) {
+            String packageName = "com.generated.module" + (i % packages) + (i % 2 == 0 ? ".web" : ".service");
+            String className = NOUNS[i % NOUNS.length] + i + (i % 2 == 0 ? "Action" : "Service");
+            Path file = root.resolve(packageName.replace('.', '/')).resolve(className + ".java");
+            Files.createDirectories(file.getParent());
+            Files.write(file, source(packageName, className, packages).getBytes());
+        }
+    }
+
+    private String source(String packageName, String className, int packages) {
+        StringBuilder source = new StringBuilder();
+        source.append("package ").append(packageName).append(";\n\n");
+        for (int i = 0; i < 3; i++) {
+            source.append("import com.generated.module").append(random.nextInt(packages)).append(".service.*;\n");
+        }
+        source.append("\npublic class ").append(className).append(" {\n");
+        for (int m = 0; m < 6; m++) {
+            source.append("    public String ").append(methodName()).append(m).append("(String id) {\n");
+            for (int c = 0; c < 4; c++) {
+                source.append("        ").append(methodName()).append(random.nextInt(6)).append("(id);\n");
+            }
+            source.append("        return \"success\";\n    }\n\n");
+        }
+        return source.append("}\n").toString();
+    }
+
+    private String methodName() {
+        return VERBS[random.nextInt(VERBS.length)] + NOUNS[random.nextInt(NOUNS.length)];
+    }
+}
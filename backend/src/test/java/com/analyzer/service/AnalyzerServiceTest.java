@@ -1,6 +1,7 @@
 package com.analyzer.service;
 
 import com.analyzer.StrutsFunctionAnalyzer;
+import com.analyzer.result.AnalysisResult;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -30,7 +31,7 @@ class AnalyzerServiceTest {
     void setUp() {
         MockitoAnnotations.openMocks(this);
         analyzerService = new AnalyzerService(blacklistService);
-        analyzerService.setAnalyzer(mockAnalyzer);
+        analyzerService.setAnalyzerFactory(() -> mockAnalyzer);
     }
 
     @Test
@@ -88,4 +89,58 @@ class AnalyzerServiceTest {
         verify(mockAnalyzer).setBlacklist(testBlacklist);
         verify(mockAnalyzer).analyzeDirectory(testPath);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testFindResult_ReusesStoredAnalysis() throws IOException {
+        // Arrange
+        String testPath = "/test/directory";
+        when(blacklistService.getBlacklist()).thenReturn(new HashSet<>());
+        when(mockAnalyzer.generateNetworkJson()).thenReturn("{\"test\":\"json\"}");
+
+        // Act
+        analyzerService.analyzeDirectory(testPath);
+        AnalysisResult first = analyzerService.findResult(testPath);
+        AnalysisResult second = analyzerService.findResult(testPath + "/");
+
+        // Assert
+        assertSame(first, second);
+        assertEquals("{\"test\":\"json\"}", new String(first.getJson()));
+        assertEquals(AnalysisResult.of(testPath, "{\"test\":\"json\"}").getEtag(), first.getEtag());
+        verify(mockAnalyzer, times(1)).analyzeDirectory(testPath);
+    }
+
+    @Test
+    void testFindResult_NeverAnalyzes() throws IOException {
+        // Arrange
+        String testPath = "/test/directory";
+        when(blacklistService.getBlacklist()).thenReturn(new HashSet<>());
+        when(mockAnalyzer.generateNetworkJson()).thenReturn("{\"test\":\"json\"}");
+
+        // Act
+        AnalysisResult missing = analyzerService.findResult(testPath);
+        analyzerService.analyzeDirectory(testPath);
+        AnalysisResult stored = analyzerService.findResult(testPath);
+
+        // Assert
+        assertNull(missing);
+        assertNotNull(stored);
+        verify(mockAnalyzer, times(1)).analyzeDirectory(testPath);
+    }
+
+    @Test
+    void testFindResult_ChangedBlacklistHasNoResult() throws IOException {
+        // Arrange
+        String testPath = "/test/directory";
+        when(blacklistService.getBlacklist()).thenReturn(new HashSet<>());
+        when(mockAnalyzer.generateNetworkJson()).thenReturn("{\"test\":\"json\"}");
+
+        // Act
+        analyzerService.analyzeDirectory(testPath);
+        when(blacklistService.getBlacklist()).thenReturn(Set.of("forbiddenMethod"));
+        AnalysisResult afterChange = analyzerService.findResult(testPath);
+
+        // Assert
+        assertNull(afterChange);
+        verify(mockAnalyzer, times(1)).analyzeDirectory(testPath);
+    }
+}
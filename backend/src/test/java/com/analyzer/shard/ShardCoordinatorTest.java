@@ -0,0 +1,90 @@
+package com.analyzer.shard;
+
+import com.analyzer.StrutsFunctionAnalyzer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+
+import static com.analyzer.TestSources.records;
+import static com.analyzer.TestSources.writeSource;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardCoordinatorTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @TempDir
+    Path sourceDir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        for (String module : Arrays.asList("billing", "orders", "shipping")) {
+            for (int i = 0; i < 4; i++) {
+                writeSource(sourceDir, module + "/src/com/shop/" + module + "/Step" + i + "Action.java",
+                        "package com.shop." + module + ";\n" +
+                        "import com.shop.common.*;\n" +
+                        "@Secured\n" +
+                        "public class Step" + i + "Action extends BaseAction implements Auditable {\n" +
+                        "    public String execute() {\n" +
+                        "        validate" + i + "();\n" +
+                        "        notifyCustomer();\n" +
+                        "        return \"success\";\n" +
+                        "    }\n" +
+                        "    @Override\n" +
+                        "    protected void validate" + i + "() {\n" +
+                        "        check" + module + "();\n" +
+                        "    }\n" +
+                        "}\n");
+            }
+        }
+        writeSource(sourceDir, "common/src/com/shop/common/Notifier.java",
+                "package com.shop.common;\n" +
+                "public class Notifier {\n" +
+                "    public void notifyCustomer() {}\n" +
+                "}\n");
+        writeSource(sourceDir, "RootAction.java",
+                "import com.shop.common.*;\n" +
+                "public class RootAction {\n" +
+                "    public void dispatch() {\n" +
+                "        notifyCustomer();\n" +
+                "    }\n" +
+                "}\n");
+    }
+
+    @Test
+    void testShardedRunMatchesSingleProcessRun() throws IOException {
+        StrutsFunctionAnalyzer single = new StrutsFunctionAnalyzer();
+        single.analyzeDirectory(sourceDir.toString());
+        JsonNode expected = mapper.readTree(single.generateNetworkJson());
+
+        StrutsFunctionAnalyzer sharded = new StrutsFunctionAnalyzer();
+        new ShardCoordinator(3, "64m").analyze(sourceDir.toString(), sharded);
+        JsonNode actual = mapper.readTree(sharded.generateNetworkJson());
+
+        for (String section : Arrays.asList("packages", "classes", "nodes", "links")) {
+            assertEquals(records(expected.get(section)), records(actual.get(section)), section);
+        }
+        assertFalse(expected.get("links").isEmpty());
+    }
+
+    @Test
+    void testSplitKeepsWalkOrderAndModuleBoundaries() throws IOException {
+        List<Path> files = new StrutsFunctionAnalyzer().listSourceFiles(sourceDir.toString());
+
+        List<List<Path>> shards = ShardCoordinator.split(sourceDir, files, 3);
+
+        assertTrue(shards.size() <= 3);
+        List<Path> flattened = new ArrayList<>();
+        shards.forEach(flattened::addAll);
+        assertEquals(files, flattened);
+        for (List<Path> shard : shards) {
+            assertFalse(shard.isEmpty());
+        }
+    }
+}
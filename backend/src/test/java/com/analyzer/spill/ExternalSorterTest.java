@@ -0,0 +1,56 @@
+package com.analyzer.spill;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExternalSorterTest {
+
+    @TempDir
+    Path spillDir;
+
+    @Test
+    void testSortsAndDeduplicatesAcrossRuns() throws IOException {
+        SpillStatistics statistics = new SpillStatistics();
+        Random random = new Random(42);
+        TreeSet<String> expected = new TreeSet<>();
+
+        List<String> actual = new ArrayList<>();
+        try (ExternalSorter sorter = new ExternalSorter(spillDir, "test", 2048, statistics)) {
+            for (int i = 0; i < 20000; i++) {
+                String record = "com.shop.Method" + random.nextInt(5000);
+                expected.add(record);
+                sorter.add(record);
+            }
+            try (ExternalSorter.CloseableIterator sorted = sorter.sorted()) {
+                sorted.forEachRemaining(actual::add);
+            }
+        }
+
+        assertEquals(new ArrayList<>(expected), actual);
+        assertTrue(statistics.getRunsWritten() > ExternalSorter.MAX_FAN_IN);
+        assertTrue(statistics.getMergePasses() > 0);
+        assertTrue(statistics.getBytesWritten() > 0);
+    }
+
+    @Test
+    void testCloseRemovesRunFiles() throws IOException {
+        ExternalSorter sorter = new ExternalSorter(spillDir, "test", 256, new SpillStatistics());
+        for (int i = 0; i < 100; i++) {
+            sorter.add("record" + i);
+        }
+        sorter.close();
+
+        try (Stream<Path> files = Files.list(spillDir)) {
+            assertEquals(Collections.emptyList(), files.collect(Collectors.toList()));
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.analyzer.watch;
+
+import com.analyzer.StrutsFunctionAnalyzer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static com.analyzer.TestSources.action;
+import static com.analyzer.TestSources.writeSource;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LiveGraphTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @TempDir
+    Path sourceDir;
+
+    @Test
+    void testUpdatesMatchFullAnalysis() throws IOException {
+        writeSource(sourceDir, "com/shop/web/OrderAction.java", action("com.shop.web", "Order", "placeOrder"));
+        writeSource(sourceDir, "com/shop/web/CartAction.java", action("com.shop.web", "Cart", "addItem"));
+        LiveGraph graph = new LiveGraph(new StrutsFunctionAnalyzer());
+        graph.update(Collections.singleton(sourceDir));
+
+        Path order = writeSource(sourceDir, "com/shop/web/OrderAction.java", action("com.shop.web", "Order", "cancelOrder"));
+        Path invoice = writeSource(sourceDir, "com/shop/billing/InvoiceAction.java", action("com.shop.billing", "Invoice", "bill"));
+        Path cart = sourceDir.resolve("com/shop/web/CartAction.java");
+        Files.delete(cart);
+        GraphDelta delta = graph.update(Arrays.asList(order, invoice, cart));
+
+        assertTrue(delta.getAddedNodes().contains("com.shop.web.cancelOrder"));
+        assertTrue(delta.getRemovedNodes().contains("com.shop.web.placeOrder"));
+        assertTrue(delta.getRemovedNodes().contains("com.shop.web.Cart.execute"));
+        assertEquals(3, delta.getChangedFiles());
+
+        StrutsFunctionAnalyzer full = new StrutsFunctionAnalyzer();
+        full.analyzeDirectory(sourceDir.toString());
+        assertSnapshotMatches(full.generateNetworkJson(), graph.snapshot());
+    }
+
+    @Test
+    void testUnchangedFilesProduceEmptyDelta() throws IOException {
+        writeSource(sourceDir, "com/shop/web/OrderAction.java", action("com.shop.web", "Order", "placeOrder"));
+        LiveGraph graph = new LiveGraph(new StrutsFunctionAnalyzer());
+        graph.update(Collections.singleton(sourceDir));
+
+        GraphDelta delta = graph.update(Collections.singleton(sourceDir));
+
+        assertTrue(delta.isEmpty());
+        assertEquals(0, delta.getChangedFiles());
+    }
+
+    @Test
+    void testSharedLinkSurvivesRemovalOfOneContributor() throws IOException {
+        writeSource(sourceDir, "com/shop/web/OrderAction.java", action("com.shop.web", "Order", "audit"));
+        Path copy = writeSource(sourceDir, "com/shop/web/other/OrderAction.java", action("com.shop.web", "Order", "audit"));
+        LiveGraph graph = new LiveGraph(new StrutsFunctionAnalyzer());
+        graph.update(Collections.singleton(sourceDir));
+
+        Files.delete(copy);
+        GraphDelta delta = graph.update(Collections.singleton(copy));
+
+        assertTrue(delta.isEmpty());
+        assertEquals(1, graph.linkCount());
+    }
+
+    @Test
+    void testDeletedPackageDirectoryIsRetracted() throws IOException {
+        writeSource(sourceDir, "com/shop/web/OrderAction.java", action("com.shop.web", "Order", "placeOrder"));
+        writeSource(sourceDir, "com/shop/billing/InvoiceAction.java", action("com.shop.billing", "Invoice", "bill"));
+        writeSource(sourceDir, "com/shop/billing/RefundAction.java", action("com.shop.billing", "Refund", "refund"));
+        LiveGraph graph = new LiveGraph(new StrutsFunctionAnalyzer());
+        graph.update(Collections.singleton(sourceDir));
+
+        Path billing = sourceDir.resolve("com/shop/billing");
+        Files.delete(billing.resolve("InvoiceAction.java"));
+        Files.delete(billing.resolve("RefundAction.java"));
+        Files.delete(billing);
+        GraphDelta delta = graph.update(Collections.singleton(billing));
+
+        assertTrue(delta.getRemovedNodes().contains("com.shop.billing.Invoice.execute"));
+        assertTrue(delta.getRemovedNodes().contains("com.shop.billing.Refund.execute"));
+        assertEquals(2, delta.getChangedFiles());
+
+        StrutsFunctionAnalyzer full = new StrutsFunctionAnalyzer();
+        full.analyzeDirectory(sourceDir.toString());
+        assertSnapshotMatches(full.generateNetworkJson(), graph.snapshot());
+    }
+
+    @Test
+    void testWatcherPushesDeltaForSavedFile() throws Exception {
+        writeSource(sourceDir, "com/shop/web/OrderAction.java", action("com.shop.web", "Order", "placeOrder"));
+        BlockingQueue<GraphDelta> deltas = new LinkedBlockingQueue<>();
+        LiveGraph graph = new LiveGraph(new StrutsFunctionAnalyzer());
+
+        try (DirectoryWatcher watcher = new DirectoryWatcher(sourceDir, graph, deltas::add)) {
+            assertTrue(graph.nodeCount() > 0);
+            writeSource(sourceDir, "com/shop/admin/ReportAction.java", action("com.shop.admin", "Report", "render"));
+
+            GraphDelta delta = deltas.poll(10, TimeUnit.SECONDS);
+            assertNotNull(delta);
+            assertTrue(delta.getAddedNodes().contains("com.shop.admin.Report.execute"));
+            assertTrue(delta.getRemovedNodes().isEmpty());
+        }
+    }
+
+    private void assertSnapshotMatches(String expectedJson, GraphDelta snapshot) throws IOException {
+        JsonNode expected = mapper.readTree(expectedJson);
+        Set<String> expectedNodes = new HashSet<>();
+        expected.get("nodes").forEach(node -> expectedNodes.add(node.get("id").asText()));
+        Set<String> expectedLinks = new HashSet<>();
+        expected.get("links").forEach(link ->
+                expectedLinks.add(link.get("source").asText() + "->" + link.get("target").asText()));
+
+        Set<String> actualLinks = new HashSet<>();
+        for (String[] link : snapshot.getAddedLinks()) {
+            actualLinks.add(link[0] + "->" + link[1]);
+        }
+        assertEquals(expectedNodes, new HashSet<>(snapshot.getAddedNodes()));
+        assertEquals(expectedLinks, actualLinks);
+    }
+}